@@ -0,0 +1,54 @@
+package other;
+
+import java.lang.reflect.Method;
+
+// Comparaison Method.invoke / MethodInvoker généré. Hors de src : jamais compilé dans Framework.jar.
+// javac -cp Framework.jar -d bench-bin bench\other\InvokerBenchmark.java
+// java -cp Framework.jar;bench-bin other.InvokerBenchmark
+public class InvokerBenchmark {
+
+    public static class SampleController {
+        private int counter;
+
+        public String show(int id, String name) {
+            counter += id;
+            return name;
+        }
+    }
+
+    private static final int WARMUP = 2_000_000;
+    private static final int ITERATIONS = 20_000_000;
+
+    // Empêche le JIT d'éliminer les appels mesurés
+    private static long checksum;
+
+    public static void main(String[] args) throws Throwable {
+        Method method = SampleController.class.getMethod("show", int.class, String.class);
+        MethodInvoker invoker = InvokerFactory.create(method);
+        SampleController controller = new SampleController();
+        Object[] params = { 42, "order" };
+
+        for (int round = 1; round <= 3; round++) {
+            System.out.println("Round " + round);
+            System.out.printf("  Method.invoke  : %6.2f ns/op%n", benchReflection(method, controller, params));
+            System.out.printf("  MethodInvoker  : %6.2f ns/op%n", benchInvoker(invoker, controller, params));
+        }
+        System.out.println("checksum: " + checksum + " / " + controller.counter);
+    }
+
+    private static double benchReflection(Method method, Object controller, Object[] params) throws Exception {
+        for (int i = 0; i < WARMUP; i++) checksum += method.invoke(controller, params).hashCode();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) checksum += method.invoke(controller, params).hashCode();
+        long elapsed = System.nanoTime() - start;
+        return (double) elapsed / ITERATIONS;
+    }
+
+    private static double benchInvoker(MethodInvoker invoker, Object controller, Object[] params) throws Throwable {
+        for (int i = 0; i < WARMUP; i++) checksum += invoker.invoke(controller, params).hashCode();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) checksum += invoker.invoke(controller, params).hashCode();
+        long elapsed = System.nanoTime() - start;
+        return (double) elapsed / ITERATIONS;
+    }
+}
@@ -14,11 +14,21 @@ xcopy /E /I /Y src\auth\*.java "Compile"
 xcopy /E /I /Y src\exception\*.java "Compile"
 xcopy /E /I /Y src\controller\*.java "Compile"
 xcopy /E /I /Y src\servlet\*.java "Compile"
+xcopy /E /I /Y src\processor\*.java "Compile"
 xcopy /E /I /Y ..\Test\src\controller\*.java "Compile"
 xcopy /E /I /Y ..\Test\src\model\*.java "Compile"
 
-REM Compiler les fichiers Java dans le répertoire de sortie
-javac -proc:full -parameters --release 17 -d "%bin%" -cp ".\lib\*" Compile\*.java
+REM Compiler d'abord le processeur d'annotations qui génère l'index des controllers
+javac --release 17 -d ".\processor-bin" -sourcepath src src\processor\RouteIndexProcessor.java
+
+REM Compiler les fichiers Java dans le répertoire de sortie (l'index est écrit dans bin\META-INF\framework)
+javac -proc:full -parameters --release 17 -processorpath ".\processor-bin" -processor processor.RouteIndexProcessor -d "%bin%" -cp ".\lib\*" Compile\*.java
+
+REM L'index des controllers de Test n'a rien à faire dans Framework.jar : chaque application génère le sien
+if exist "%bin%\META-INF\framework" rmdir /S /Q "%bin%\META-INF\framework"
+
+REM Déclarer le processeur dans le JAR pour les projets qui compilent avec Framework.jar
+xcopy /E /I /Y src\META-INF "%bin%\META-INF"
 
 REM Créer un fichier JAR contenant les classes compilées 
 jar cvf ".\%JAR_FILE%.jar" -C "%bin%" .
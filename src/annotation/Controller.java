@@ -5,5 +5,7 @@ import java.lang.annotation.RetentionPolicy;
 
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Controller {
-    String value();
+    String value() default "";
+    // Préfixe commun à toutes les @Url du contrôleur (groupe de routes), ex: "/orders"
+    String prefix() default "";
 }
@@ -11,4 +11,8 @@ import java.lang.annotation.Target;
 public @interface ModelParam {
     String name(); 
     String redirectOnError() default "";
+    // Arrêter la validation à la première contrainte non respectée
+    boolean failFast() default false;
+    // Échéance (ms) des contraintes @AsyncCheck de la requête
+    long asyncTimeout() default ValidateForm.DEFAULT_ASYNC_TIMEOUT_MILLIS;
 }
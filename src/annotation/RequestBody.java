@@ -0,0 +1,19 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Paramètre lu depuis le corps JSON de la requête, puis validé comme un @ModelParam
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+
+public @interface RequestBody {
+    // Taille maximale du corps en octets ; au-delà, réponse 413
+    long maxSize() default 1024 * 1024;
+    // Arrêter la validation à la première contrainte non respectée
+    boolean failFast() default false;
+    // Échéance (ms) des contraintes @AsyncCheck de la requête
+    long asyncTimeout() default ValidateForm.DEFAULT_ASYNC_TIMEOUT_MILLIS;
+}
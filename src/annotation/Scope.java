@@ -0,0 +1,22 @@
+package annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Cycle de vie des instances d'un @Controller (REQUEST par défaut, sans annotation)
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Scope {
+
+    enum Type {
+        REQUEST,    // une nouvelle instance par requête (comportement historique)
+        SINGLETON,  // une seule instance partagée : le contrôleur doit être thread-safe
+        POOLED      // un pool borné d'instances réutilisées, une requête à la fois
+    }
+
+    Type value() default Type.REQUEST;
+    // Nombre maximal d'instances pour POOLED
+    int poolSize() default 16;
+}
@@ -4,11 +4,26 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import other.VirtualThreads;
 import exception.ValidationError;
 import exception.ValidationException;
-import other.ModelView;
 
 public class ValidateForm {
     
@@ -43,74 +58,280 @@ public class ValidateForm {
         String message() default "La longueur n'est pas valide";
     }
 
+    // Contrainte coûteuse (I/O : unicité, fichier de référence...) exécutée hors du thread de la requête,
+    // en parallèle des autres, et seulement si toutes les contraintes simples sont respectées
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.FIELD)
+    public @interface AsyncCheck {
+        Class<? extends AsyncValidator>[] value();
+    }
+
+    // SPI des contraintes asynchrones : une instance par classe de validateur, partagée (thread-safe)
+    public interface AsyncValidator {
+        // Peut bloquer ; renvoie le message d'erreur, ou null si la valeur est valide
+        String validate(Object value) throws Exception;
+    }
+
+    public static final long DEFAULT_ASYNC_TIMEOUT_MILLIS = 2000;
+    private static final String TIMEOUT_MESSAGE = "La validation n'a pas pu être terminée à temps";
+
+    private static volatile ExecutorService asyncExecutor;
+
+    // Une contrainte appliquée à la valeur d'un champ : message d'erreur, ou null si elle est respectée
+    @FunctionalInterface
+    private interface Check {
+        String check(Object value);
+    }
+
+    // Plans compilés une seule fois par classe
+    private static final Map<Class<?>, Plan> PLANS = new ConcurrentHashMap<>();
+
+    private final boolean failFast;
+    // Échéance des contraintes asynchrones, comptée depuis leur lancement
+    private final long asyncTimeoutMillis;
+
+    public ValidateForm() {
+        this(false);
+    }
+
+    // failFast : arrêt à la première contrainte non respectée
+    public ValidateForm(boolean failFast) {
+        this(failFast, DEFAULT_ASYNC_TIMEOUT_MILLIS);
+    }
+
+    public ValidateForm(boolean failFast, long asyncTimeoutMillis) {
+        this.failFast = failFast;
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
     public ValidationError validateObject(Object obj) throws ValidationException {
-        ValidationError validationError = new ValidationError();
+        Plan plan = PLANS.computeIfAbsent(obj.getClass(), Plan::new);
+        ValidationError validationError = null;
 
-        for (Field field : obj.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            try {
-                validateField(field, obj, validationError);
-            } catch (IllegalAccessException e) {
-                validationError.addError(field.getName(), "Erreur d'accès au champ " + field.getName());
+        for (Property property : plan.constrained) {
+            Object value = property.get(obj);
+            for (Check check : property.checks) {
+                String error = check.check(value);
+                if (error == null) continue;
+
+                if (validationError == null) validationError = new ValidationError();
+                validationError.addError(property.name, error);
+                if (failFast) break;
+            }
+            if (failFast && validationError != null) break;
+        }
+
+        // Contraintes asynchrones : ignorées dès qu'une contrainte simple a échoué
+        if (validationError == null && plan.asynchronous.length > 0) {
+            validationError = validateAsync(plan, obj);
+        }
+
+        if (validationError == null) return new ValidationError();
+
+        // Les valeurs ne sont capturées qu'en cas d'échec, et seulement si la vue les demande
+        ValidationException ve = new ValidationException();
+        validationError.getFieldErrors().forEach(ve::addError);
+        ve.setFieldValues(() -> plan.captureValues(obj));
+        throw ve;
+    }
+
+    // Lance toutes les contraintes asynchrones en parallèle et attend au plus asyncTimeoutMillis
+    private ValidationError validateAsync(Plan plan, Object obj) {
+        CompletionService<String[]> completion = new ExecutorCompletionService<>(asyncExecutor());
+        List<Future<String[]>> futures = new ArrayList<>();
+        List<String> pending = new ArrayList<>();
+
+        for (Property property : plan.asynchronous) {
+            // Valeur lue sur le thread de la requête : les validateurs ne voient pas l'objet
+            Object value = property.get(obj);
+            String fieldName = property.name;
+            for (AsyncValidator validator : property.asyncChecks) {
+                futures.add(completion.submit(() -> new String[] { fieldName, validate(validator, value) }));
+                pending.add(fieldName);
             }
         }
 
-        if (validationError.hasErrors()) {
-            // On utilise les méthodes existantes pour transférer les erreurs
-            ValidationException ve = new ValidationException();
-            validationError.getFieldErrors().forEach((field, error) -> 
-                ve.addError(field, error)
-            );
-            throw ve;
+        ValidationError validationError = null;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(asyncTimeoutMillis);
+        try {
+            for (int done = 0; done < futures.size(); done++) {
+                Future<String[]> future = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) break;
+
+                String[] result = future.get();
+                pending.remove(result[0]);
+                if (result[1] == null) continue;
+
+                if (validationError == null) validationError = new ValidationError();
+                validationError.addError(result[0], result[1]);
+                if (failFast) return validationError;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // validate() capture déjà les exceptions des validateurs
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<String[]> future : futures) future.cancel(true);
         }
 
+        // Échéance dépassée : les champs encore en attente sont en erreur
+        for (String fieldName : pending) {
+            if (validationError == null) validationError = new ValidationError();
+            validationError.addError(fieldName, TIMEOUT_MESSAGE);
+            if (failFast) break;
+        }
         return validationError;
     }
-    
-    private void validateField(Field field, Object obj, ValidationError validationError) 
-            throws IllegalAccessException {
-        
-        String fieldName = field.getName();
-        Object value = field.get(obj);
-        
-        // Toujours sauvegarder la valeur actuelle
-        if (value != null) {
-            validationError.addValue(fieldName, value.toString());
+
+    private static String validate(AsyncValidator validator, Object value) {
+        try {
+            return validator.validate(value);
+        } catch (Exception e) {
+            return "Validation impossible : " + e.getMessage();
         }
+    }
 
-        // Validation NotNull
-        if (field.isAnnotationPresent(NotNull.class)) {
-            NotNull annotation = field.getAnnotation(NotNull.class);
-            if (value == null || (value instanceof String && ((String) value).trim().isEmpty())) {
-                validationError.addError(fieldName, annotation.message());
+    // Threads virtuels quand la JVM les fournit (Java 21+), sinon un pool de threads démons
+    private static ExecutorService asyncExecutor() {
+        ExecutorService executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (ValidateForm.class) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    executor = VirtualThreads.newExecutor("validate-async");
+                    asyncExecutor = executor;
+                }
             }
         }
+        return executor;
+    }
 
-        // Validation ValidNumber
-        if (field.isAnnotationPresent(ValidNumber.class)) {
-            ValidNumber annotation = field.getAnnotation(ValidNumber.class);
-            if (value instanceof Number) {
-                int numValue = ((Number) value).intValue();
-                if (numValue < annotation.min() || numValue > annotation.max()) {
-                    validationError.addError(fieldName, annotation.message());
+    // Plan d'une classe : accesseurs et contraintes de chaque champ, dans l'ordre de déclaration
+    private static final class Plan {
+        final Property[] properties;
+        final Property[] constrained;
+        final Property[] asynchronous;
+
+        Plan(Class<?> type) {
+            List<Property> properties = new ArrayList<>();
+            List<Property> constrained = new ArrayList<>();
+            List<Property> asynchronous = new ArrayList<>();
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                for (Field field : type.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) continue;
+                    MethodHandle getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                    Property property = new Property(field.getName(), getter, compileChecks(field), compileAsyncChecks(field));
+                    properties.add(property);
+                    if (property.checks.length > 0) constrained.add(property);
+                    if (property.asyncChecks.length > 0) asynchronous.add(property);
                 }
-                if (annotation.positiveOnly() && numValue <= 0) {
-                    validationError.addError(fieldName, 
-                        "La valeur du champ " + fieldName + " doit être positive");
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot compile validation plan for " + type.getName(), e);
+            }
+            this.properties = properties.toArray(new Property[0]);
+            this.constrained = constrained.toArray(new Property[0]);
+            this.asynchronous = asynchronous.toArray(new Property[0]);
+        }
+
+        Map<String, String> captureValues(Object obj) {
+            Map<String, String> values = new HashMap<>();
+            for (Property property : properties) {
+                Object value = property.get(obj);
+                if (value != null) values.put(property.name, value.toString());
+            }
+            return values;
+        }
+
+        private static AsyncValidator[] compileAsyncChecks(Field field) {
+            AsyncCheck asyncCheck = field.getAnnotation(AsyncCheck.class);
+            if (asyncCheck == null) return new AsyncValidator[0];
+
+            AsyncValidator[] validators = new AsyncValidator[asyncCheck.value().length];
+            for (int i = 0; i < validators.length; i++) {
+                Class<? extends AsyncValidator> validatorClass = asyncCheck.value()[i];
+                try {
+                    validators[i] = validatorClass.getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot instantiate validator " + validatorClass.getName(), e);
                 }
             }
+            return validators;
         }
 
-        // Validation ValidEmail
-        if (field.isAnnotationPresent(ValidEmail.class)) {
-            ValidEmail annotation = field.getAnnotation(ValidEmail.class);
-            if (value instanceof String) {
-                String email = (String) value;
-                if (!email.contains(annotation.atSymbol()) || 
-                    !email.endsWith(annotation.domainSuffix())) {
-                    validationError.addError(fieldName, annotation.message());
+        // Ordre : NotNull, ValidNumber (intervalle puis positif), ValidEmail, Length
+        private static Check[] compileChecks(Field field) {
+            String fieldName = field.getName();
+            List<Check> checks = new ArrayList<>();
+
+            NotNull notNull = field.getAnnotation(NotNull.class);
+            if (notNull != null) {
+                String message = notNull.message();
+                checks.add(value -> value == null || (value instanceof String && ((String) value).trim().isEmpty()) ? message : null);
+            }
+
+            ValidNumber validNumber = field.getAnnotation(ValidNumber.class);
+            if (validNumber != null) {
+                int min = validNumber.min();
+                int max = validNumber.max();
+                String message = validNumber.message();
+                checks.add(value -> {
+                    if (!(value instanceof Number)) return null;
+                    int numValue = ((Number) value).intValue();
+                    return numValue < min || numValue > max ? message : null;
+                });
+                if (validNumber.positiveOnly()) {
+                    String positiveMessage = "La valeur du champ " + fieldName + " doit être positive";
+                    checks.add(value -> value instanceof Number && ((Number) value).intValue() <= 0 ? positiveMessage : null);
                 }
             }
+
+            ValidEmail validEmail = field.getAnnotation(ValidEmail.class);
+            if (validEmail != null) {
+                String atSymbol = validEmail.atSymbol();
+                String domainSuffix = validEmail.domainSuffix();
+                String message = validEmail.message();
+                checks.add(value -> value instanceof String
+                        && (!((String) value).contains(atSymbol) || !((String) value).endsWith(domainSuffix)) ? message : null);
+            }
+
+            Length length = field.getAnnotation(Length.class);
+            if (length != null) {
+                int min = length.min();
+                int max = length.max();
+                String message = length.message();
+                // Une valeur null relève de @NotNull
+                checks.add(value -> {
+                    if (!(value instanceof CharSequence)) return null;
+                    int size = ((CharSequence) value).length();
+                    return size < min || size > max ? message : null;
+                });
+            }
+
+            return checks.toArray(new Check[0]);
+        }
+    }
+
+    private static final class Property {
+        final String name;
+        final MethodHandle getter;
+        final Check[] checks;
+        final AsyncValidator[] asyncChecks;
+
+        Property(String name, MethodHandle getter, Check[] checks, AsyncValidator[] asyncChecks) {
+            this.name = name;
+            this.getter = getter;
+            this.checks = checks;
+            this.asyncChecks = asyncChecks;
+        }
+
+        Object get(Object instance) {
+            try {
+                return (Object) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Erreur d'accès au champ " + name, e);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package annotation.methods;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Délai maximal (ms) d'une méthode qui renvoie un CompletableFuture / CompletionStage ; au-delà, réponse 503
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AsyncTimeout {
+    long value();
+}
@@ -0,0 +1,21 @@
+package annotation.methods;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Limite de requêtes simultanées d'une route (ou de chaque route d'un contrôleur) ;
+// au-delà, attente courte dans une file bornée, puis réponse 503 avec Retry-After
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+    // Exécutions simultanées autorisées
+    int maxConcurrent();
+    // Requêtes en attente au plus ; au-delà, refus immédiat
+    int maxQueue() default 32;
+    // Attente maximale (ms) d'une place libre
+    long queueTimeout() default 100;
+    // Valeur de l'en-tête Retry-After (secondes) en cas de refus
+    int retryAfter() default 1;
+}
@@ -0,0 +1,16 @@
+package annotation.methods;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Réglage des envois d'une méthode @RestApi qui renvoie un Stream, un Iterator ou un ResultPublisher
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Streaming {
+    // Envoi au client après ce nombre d'éléments (0 : seulement quand le tampon est plein)
+    int flushEvery() default 64;
+    // Un élément écrit part au plus tard après ce délai (ms), même si la source tarde à produire le suivant (0 : désactivé)
+    long flushInterval() default 1000;
+}
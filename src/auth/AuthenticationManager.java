@@ -63,6 +63,12 @@ public class AuthenticationManager {
         return session != null && session.getAttribute(userSessionKey) != null;
     }
 
+    // Objet utilisateur mis en session par setAuthenticated, ou null
+    public static Object getUser(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session == null ? null : session.getAttribute(userSessionKey);
+    }
+
     public static boolean hasRole(HttpServletRequest request, String requiredRole) {
         if (!isAuthenticated(request)) {
             System.out.println("Debug - Authentication check failed");
@@ -0,0 +1,227 @@
+package controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Trouve les classes portant une annotation en lisant directement les fichiers .class
+// (pool de constantes + attribut RuntimeVisibleAnnotations), sans charger ni initialiser les classes.
+// Fonctionne pour les répertoires et les JAR ; les fichiers sont analysés en parallèle (fork-join).
+public class ClassFileScanner {
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final String annotationDescriptor;
+
+    public ClassFileScanner(Class<?> annotation) {
+        this.annotationDescriptor = "L" + annotation.getName().replace('.', '/') + ";";
+    }
+
+    // Noms binaires des classes annotées sous packageName, triés
+    public List<String> scan(ClassLoader classLoader, String packageName) throws IOException {
+        String path = packageName.replace('.', '/');
+        List<ClassSource> sources = new ArrayList<>();
+        List<JarFile> jars = new ArrayList<>();
+
+        try {
+            Enumeration<URL> resources = classLoader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                System.out.println("Found resource: " + resource); // Debug
+                if ("jar".equals(resource.getProtocol())) {
+                    collectJarEntries(resource, path, sources, jars);
+                } else if ("file".equals(resource.getProtocol())) {
+                    collectDirectory(Paths.get(URLDecoder.decode(resource.getFile(), "UTF-8")), sources);
+                }
+            }
+
+            // Lecture et analyse des en-têtes en parallèle sur le pool fork-join commun
+            return sources.parallelStream()
+                    .map(this::annotatedClassName)
+                    .filter(Objects::nonNull)
+                    .sorted()
+                    .collect(Collectors.toList());
+
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (JarFile jar : jars) jar.close();
+        }
+    }
+
+    private void collectDirectory(Path directory, List<ClassSource> sources) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            System.out.println("Directory does not exist: " + directory); // Debug
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(file -> isClassFile(file.getFileName().toString()))
+                 .forEach(file -> sources.add(() -> Files.newInputStream(file)));
+        }
+    }
+
+    private void collectJarEntries(URL resource, String path, List<ClassSource> sources, List<JarFile> jars)
+        throws IOException
+    {
+        URLConnection connection = resource.openConnection();
+        if (!(connection instanceof JarURLConnection)) return;
+        JarURLConnection jarConnection = (JarURLConnection) connection;
+        jarConnection.setUseCaches(false);
+        JarFile jar = jarConnection.getJarFile();
+        jars.add(jar);
+
+        String prefix = path + "/";
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+            if (name.startsWith(prefix) && isClassFile(name)) {
+                sources.add(() -> jar.getInputStream(entry));
+            }
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+    }
+
+    private String annotatedClassName(ClassSource source) {
+        try (InputStream in = source.open()) {
+            return annotatedClassName(in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Nom de la classe si elle porte l'annotation, sinon null
+    String annotatedClassName(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) return null;
+        in.skipBytes(4); // minor, major
+
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNameIndex = new int[count];
+        boolean mentionsAnnotation = false;
+
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    if (utf8[i].equals(annotationDescriptor)) mentionsAnnotation = true;
+                    break;
+                case 7: // Class
+                    classNameIndex[i] = in.readUnsignedShort();
+                    break;
+                case 8: case 16: case 19: case 20: // String, MethodType, Module, Package
+                    in.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5: case 6: // Long, Double : occupent deux entrées
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Invalid constant pool tag " + tag);
+            }
+        }
+        // Rejet rapide : le descripteur n'apparaît nulle part dans la classe
+        if (!mentionsAnnotation) return null;
+
+        in.skipBytes(2); // access_flags
+        int thisClass = in.readUnsignedShort();
+        in.skipBytes(2); // super_class
+        in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+        skipMembers(in); // fields
+        skipMembers(in); // methods
+
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            String name = utf8[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (!RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                in.skipBytes(length);
+                continue;
+            }
+            int annotations = in.readUnsignedShort();
+            for (int a = 0; a < annotations; a++) {
+                if (annotationDescriptor.equals(utf8[in.readUnsignedShort()])) {
+                    return utf8[classNameIndex[thisClass]].replace('/', '.');
+                }
+                skipElementValuePairs(in);
+            }
+            return null;
+        }
+        return null;
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int members = in.readUnsignedShort();
+        for (int i = 0; i < members; i++) {
+            in.skipBytes(6); // access_flags, name_index, descriptor_index
+            int attributes = in.readUnsignedShort();
+            for (int a = 0; a < attributes; a++) {
+                in.skipBytes(2);
+                in.skipBytes(in.readInt());
+            }
+        }
+    }
+
+    private static void skipElementValuePairs(DataInputStream in) throws IOException {
+        int pairs = in.readUnsignedShort();
+        for (int i = 0; i < pairs; i++) {
+            in.skipBytes(2); // element_name_index
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                in.skipBytes(4);
+                break;
+            case '@':
+                in.skipBytes(2);
+                skipElementValuePairs(in);
+                break;
+            case '[':
+                int values = in.readUnsignedShort();
+                for (int i = 0; i < values; i++) skipElementValue(in);
+                break;
+            default: // B C D F I J S Z s c
+                in.skipBytes(2);
+                break;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ClassSource {
+        InputStream open() throws IOException;
+    }
+}
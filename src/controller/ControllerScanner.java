@@ -1,67 +1,202 @@
 package controller;
 
-import java.io.File;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
 import java.net.URL;
-import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import annotation.Controller;
 public class ControllerScanner {
 
+    // Index écrit à la compilation par processor.RouteIndexProcessor : une classe par ligne,
+    // suivie de ses routes (lignes commençant par une tabulation)
+    public static final String INDEX_RESOURCE = "META-INF/framework/controllers.idx";
+    // Première ligne d'un index avec routes ; sans elle (ancien format), les routes sont relues par réflexion
+    public static final String INDEX_HEADER = "# Controllers and routes indexed at compile time (v2)";
+
+    // Routes lues dans l'index, ou null si les contrôleurs ont été trouvés par scan
+    private List<Route> indexedRoutes;
+
     public List<Class<?>> findControllers(String packageName) throws ClassNotFoundException, IOException {
         List<Class<?>> controllers = new ArrayList<>();
         ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        indexedRoutes = null;
 
         if (classLoader == null) {
             throw new IllegalStateException("ClassLoader is null");
         }
 
+        // Index précompilé : aucun parcours de répertoire, seules les classes indexées sont chargées
+        List<Class<?>> indexed = findIndexedControllers(packageName, classLoader);
+        if (indexed != null) {
+            System.out.println("Controllers loaded from index: " + indexed.size()); // Debug
+            return indexed;
+        }
+
+        // Sans index : lecture des en-têtes .class (répertoires et JAR), seules les classes @Controller sont chargées
         String path = packageName.replace('.', '/');
         System.out.println("Looking for resources in path: " + path); // Debug
 
-        Enumeration<URL> resources = classLoader.getResources(path);
-
-        if (resources == null || !resources.hasMoreElements()) {
-            System.out.println("No resources found for path: " + path); // Debug
-        } else {
-            while (resources.hasMoreElements()) {
-                URL resource = resources.nextElement();
-                String decodedPath = URLDecoder.decode(resource.getFile(), "UTF-8");
-                System.out.println("Found resource: " + decodedPath); // Debug
-                controllers.addAll(findClasses(new File(decodedPath), packageName));
-            }
+        List<String> classNames = new ClassFileScanner(Controller.class).scan(classLoader, packageName);
+        if (classNames.isEmpty()) {
+            System.out.println("No controllers found for path: " + path); // Debug
+        }
+        for (String className : classNames) {
+            controllers.add(Class.forName(className, false, classLoader));
+            System.out.println("Found annotated class: " + className); // Debug
         }
 
         return controllers;
     }
 
-    private List<Class<?>> findClasses(File directory, String packageName) throws ClassNotFoundException {
-        List<Class<?>> classes = new ArrayList<>();
-        if (!directory.exists()) {
-            System.out.println("Directory does not exist: " + directory.getPath()); // Debug
-            return classes;
+    // Routes de l'index (méthodes déjà résolues) ; null : lire les @Url des contrôleurs par réflexion
+    public List<Route> getIndexedRoutes() {
+        return indexedRoutes;
+    }
+
+    // null (repli sur le scan) si aucun index ne couvre le package, ou si une classe ou une méthode indexée
+    // a disparu : l'index est alors périmé ou incomplet.
+    // Index des classes de l'application : seules ses entrées du package comptent. Index d'un JAR : retenu
+    // seulement si toutes ses entrées sont dans le package (JAR des contrôleurs de l'application), jamais
+    // celui d'une bibliothèque qui indexe ses propres classes
+    private List<Class<?>> findIndexedControllers(String packageName, ClassLoader classLoader)
+        throws IOException
+    {
+        String packagePrefix = packageName + ".";
+        // Classe -> routes brutes (verbe, URL, méthode, types) ; null si l'index n'a pas de routes
+        Map<String, List<String[]>> entries = new LinkedHashMap<>();
+        boolean withRoutes = true;
+
+        Enumeration<URL> indexes = classLoader.getResources(INDEX_RESOURCE);
+        while (indexes.hasMoreElements()) {
+            URL index = indexes.nextElement();
+            Map<String, List<String[]>> parsed = new LinkedHashMap<>();
+            boolean parsedWithRoutes = readIndex(index, parsed);
+            boolean foreign = parsed.keySet().stream().anyMatch(className -> !className.startsWith(packagePrefix));
+            if (foreign && !"file".equals(index.getProtocol())) {
+                System.out.println("Ignoring controller index outside package " + packageName + ": " + index);
+                continue;
+            }
+            for (Map.Entry<String, List<String[]>> entry : parsed.entrySet()) {
+                if (!entry.getKey().startsWith(packagePrefix)) continue;
+                entries.put(entry.getKey(), entry.getValue());
+                withRoutes &= parsedWithRoutes;
+            }
         }
+        if (entries.isEmpty()) return null;
 
-        File[] files = directory.listFiles();
-        if (files == null) {
-            System.out.println("No files found in directory: " + directory.getPath()); // Debug
-            return classes;
+        List<Class<?>> controllers = new ArrayList<>();
+        List<Route> routes = new ArrayList<>();
+        for (Map.Entry<String, List<String[]>> entry : entries.entrySet()) {
+            String className = entry.getKey();
+            // Chargée sans initialisation : les blocs static s'exécuteront à la première instanciation
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(className, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                System.out.println("Controller index is stale (" + className + " not found), scanning instead");
+                return null;
+            }
+            if (!clazz.isAnnotationPresent(Controller.class)) continue;
+            controllers.add(clazz);
+            if (!withRoutes) continue;
+
+            for (String[] route : entry.getValue()) {
+                try {
+                    routes.add(new Route(route[0], route[1], clazz, resolveMethod(clazz, route[2], route[3], classLoader)));
+                } catch (ClassNotFoundException | NoSuchMethodException e) {
+                    System.out.println("Controller index is stale (" + className + "." + route[2] + " not found), scanning instead");
+                    return null;
+                }
+            }
         }
+        indexedRoutes = withRoutes ? routes : null;
+        return controllers;
+    }
 
-        for (File file : files) {
-            if (file.isDirectory()) {
-                classes.addAll(findClasses(file, packageName + "." + file.getName()));
-            } else if (file.getName().endsWith(".class")) {
-                Class<?> clazz = Class.forName(packageName + '.' + file.getName().substring(0, file.getName().length() - 6));
-                if (clazz.isAnnotationPresent(Controller.class)) {
-                    classes.add(clazz);
-                    System.out.println("Found annotated class: " + clazz.getName()); // Debug
+    // false : index de l'ancien format (noms de classes seuls)
+    private static boolean readIndex(URL index, Map<String, List<String[]>> entries) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            boolean withRoutes = INDEX_HEADER.equals(line);
+            List<String[]> current = null;
+            for (; line != null; line = reader.readLine()) {
+                if (line.startsWith("\t")) {
+                    // \tVERBE\tURL\tméthode\ttypes
+                    String[] route = line.substring(1).split("\t", -1);
+                    if (current != null && route.length == 4) current.add(route);
+                    continue;
                 }
+                String className = line.trim();
+                if (className.isEmpty() || className.startsWith("#")) continue;
+                current = new ArrayList<>();
+                entries.put(className, current);
             }
+            return withRoutes;
+        }
+    }
+
+    private static Method resolveMethod(Class<?> clazz, String name, String types, ClassLoader classLoader)
+        throws ClassNotFoundException, NoSuchMethodException
+    {
+        if (types.isEmpty()) return clazz.getDeclaredMethod(name);
+        String[] names = types.split(",");
+        Class<?>[] parameterTypes = new Class<?>[names.length];
+        for (int i = 0; i < names.length; i++) parameterTypes[i] = loadType(names[i], classLoader);
+        return clazz.getDeclaredMethod(name, parameterTypes);
+    }
+
+    // int, a.B$C, java.lang.String[]
+    private static Class<?> loadType(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        if (name.endsWith("[]")) return loadType(name.substring(0, name.length() - 2), classLoader).arrayType();
+        switch (name) {
+            case "boolean": return boolean.class;
+            case "byte": return byte.class;
+            case "char": return char.class;
+            case "short": return short.class;
+            case "int": return int.class;
+            case "long": return long.class;
+            case "float": return float.class;
+            case "double": return double.class;
+            default: return Class.forName(name, false, classLoader);
+        }
+    }
+
+    // Route lue dans l'index : verbe, URL complète (préfixe du contrôleur inclus) et méthode
+    public static final class Route {
+        private final String verb;
+        private final String url;
+        private final Class<?> controllerClass;
+        private final Method method;
+
+        Route(String verb, String url, Class<?> controllerClass, Method method) {
+            this.verb = verb;
+            this.url = url;
+            this.controllerClass = controllerClass;
+            this.method = method;
+        }
+
+        public String getVerb() {
+            return verb;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public Class<?> getControllerClass() {
+            return controllerClass;
+        }
+
+        public Method getMethod() {
+            return method;
         }
-        return classes;
     }
 }
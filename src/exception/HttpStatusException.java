@@ -0,0 +1,22 @@
+package exception;
+
+import jakarta.servlet.ServletException;
+
+// Requête refusée avec un statut HTTP précis (413 corps trop gros, 400 JSON invalide...)
+public class HttpStatusException extends ServletException {
+    private final int status;
+
+    public HttpStatusException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatusException(int status, String message, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+}
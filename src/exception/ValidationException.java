@@ -2,14 +2,20 @@ package exception;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 import other.ModelView;
 
+// Échec de validation attendu (formulaire invalide) : sans trace de pile, les valeurs saisies sont calculées à la demande
 public class ValidationException extends Exception {
     private ModelView modelView;
     private Map<String, String> validationErrors;
+    // Valeurs saisies, capturées seulement en cas d'échec et au premier accès
+    private Map<String, String> fieldValues;
+    private Supplier<Map<String, String>> fieldValuesSupplier;
     private String redirectUrl;
     
     public ValidationException() {
+        super(null, null, false, false);
         this.validationErrors = new HashMap<>();
     }
     
@@ -29,6 +35,23 @@ public class ValidationException extends Exception {
         return this.validationErrors;
     }
     
+    public Map<String, String> getFieldValues() {
+        if (this.fieldValues == null && this.fieldValuesSupplier != null) {
+            this.fieldValues = this.fieldValuesSupplier.get();
+        }
+        return this.fieldValues;
+    }
+
+    public void setFieldValues(Map<String, String> fieldValues) {
+        this.fieldValues = fieldValues;
+        this.fieldValuesSupplier = null;
+    }
+
+    public void setFieldValues(Supplier<Map<String, String>> fieldValuesSupplier) {
+        this.fieldValues = null;
+        this.fieldValuesSupplier = fieldValuesSupplier;
+    }
+
     public void setModelView(ModelView modelView) {
         this.modelView = modelView;
     }
@@ -0,0 +1,173 @@
+package other;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import exception.HttpStatusException;
+import exception.ValidationException;
+
+// Méthode qui renvoie un CompletableFuture / CompletionStage : la requête passe en mode asynchrone,
+// le thread du conteneur est libéré, et le résultat est rendu (JSON, ModelView, texte) quand il est prêt.
+// Le premier de l'achèvement, du délai (@AsyncTimeout) ou d'une erreur réseau termine la requête.
+// Le rendu et la réponse au délai passent par le même verrou : onTimeout attend un rendu en cours puis termine
+// la requête lui-même. Le calcul n'est pas annulé au délai (cancel n'interrompt pas le code qui l'exécute) :
+// l'instance du contrôleur n'est rendue qu'à son véritable achèvement.
+public class AsyncResultHandler {
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private final VerbAction verbAction;
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final AsyncContext asyncContext;
+    private final AtomicBoolean done = new AtomicBoolean();
+    // Requête confiée à dispatch() : le conteneur la termine, pas de complete()
+    private boolean dispatched;
+
+    private AsyncResultHandler(VerbAction verbAction, HttpServletRequest request, HttpServletResponse response,
+                               AsyncContext asyncContext) {
+        this.verbAction = verbAction;
+        this.request = request;
+        this.response = response;
+        this.asyncContext = asyncContext;
+    }
+
+    // Le servlet doit être déclaré <async-supported>true</async-supported> dans web.xml.
+    // release : rend l'instance du contrôleur à son ControllerProvider, à l'achèvement du calcul
+    public static void start(CompletionStage<?> stage, VerbAction verbAction, HttpServletRequest request,
+                             HttpServletResponse response, Runnable release) {
+        AsyncContext asyncContext = Utils.startAsync(request, response);
+        asyncContext.setTimeout(verbAction.getAsyncTimeoutMillis());
+
+        AsyncResultHandler handler = new AsyncResultHandler(verbAction, request, response, asyncContext);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                handler.timeout();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                // Client parti : plus rien à écrire
+                if (handler.done.compareAndSet(false, true)) handler.finish(true);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {}
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {}
+        });
+        stage.whenComplete((value, error) -> {
+            try {
+                handler.complete(value, error);
+            } finally {
+                release.run();
+            }
+        });
+    }
+
+    private synchronized void complete(Object value, Throwable error) {
+        if (!done.compareAndSet(false, true)) return;
+        boolean completeContext = true;
+        try {
+            completeContext = error == null ? render(value) : renderError(unwrap(error));
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error rendering async result: " + e.getMessage());
+        } finally {
+            dispatched = !completeContext;
+            finish(completeContext);
+        }
+    }
+
+    // Sous le verrou du rendu : si le résultat est arrivé juste avant, on attend la fin de son rendu et
+    // la requête est terminée ici, sans laisser le conteneur traiter le délai pendant l'écriture
+    private synchronized void timeout() {
+        if (!done.compareAndSet(false, true)) {
+            if (!dispatched) finish(true);
+            return;
+        }
+        // Le calcul continue : son résultat sera ignoré
+        sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Async result not ready after " + verbAction.getAsyncTimeoutMillis() + " ms");
+        finish(true);
+    }
+
+    // false : la requête a été redirigée par dispatch(), le conteneur la termine lui-même
+    private boolean render(Object value) throws IOException {
+        if (value instanceof ModelView) {
+            ModelView modelView = (ModelView) value;
+            modelView.getData().forEach(request::setAttribute);
+            asyncContext.dispatch("/" + modelView.getUrl());
+            return false;
+        }
+        if (value instanceof FileDownload) {
+            ((FileDownload) value).write(request, response);
+        } else if (verbAction.isRestApi()) {
+            verbAction.getJsonWriter().write(value, request, response);
+        } else if (value == null) {
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        } else {
+            response.setContentType("text/html;charset=UTF-8");
+            response.getWriter().print(value);
+        }
+        return true;
+    }
+
+    // Mêmes réponses qu'en mode synchrone : validation, statut HTTP dédié, sinon 500
+    private boolean renderError(Throwable error) throws IOException {
+        if (error instanceof ValidationException) {
+            ValidationException ve = (ValidationException) error;
+            if (ve.getModelView() != null) return render(ve.getModelView());
+            if (ve.getRedirectUrl() == null) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                JsonResponseWriter.VALIDATION_ERRORS.write(ve.getValidationErrors(), request, response);
+                return true;
+            }
+            request.setAttribute("fieldErrors", ve.getValidationErrors());
+            request.setAttribute("fieldValues", ve.getFieldValues());
+            asyncContext.dispatch(ve.getRedirectUrl());
+            return false;
+        }
+        if (error instanceof HttpStatusException) {
+            sendError(((HttpStatusException) error).getStatus(), error.getMessage());
+            return true;
+        }
+        error.printStackTrace();
+        sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error invoking method: " + error.getMessage());
+        return true;
+    }
+
+    private void sendError(int status, String message) {
+        if (response.isCommitted()) return;
+        try {
+            response.sendError(status, message);
+        } catch (IOException | IllegalStateException e) {
+            // Réponse déjà terminée ou client parti
+        }
+    }
+
+    private void finish(boolean completeContext) {
+        try {
+            if (completeContext) asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Contexte déjà terminé par le conteneur
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,156 @@
+package other;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+// Stockage adressé par contenu : chaque fichier est rangé une seule fois sous son empreinte SHA-256
+// (racine/ab/cd/abcd...). Le flux est écrit dans un fichier temporaire pendant que l'empreinte est calculée
+// sur un autre thread, bloc par bloc : pas de seconde lecture. Un contenu déjà présent n'est pas réécrit.
+public class ContentStore {
+
+    public static final String ALGORITHM = "SHA-256";
+    private static final int CHUNK_SIZE = 64 * 1024;
+    // Blocs en circulation : l'un est haché pendant que l'autre est lu puis écrit
+    private static final int BUFFERS = 3;
+
+    private static final ExecutorService HASHERS = VirtualThreads.newExecutor("content-hash");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path root;
+    private final Path incoming;
+
+    public ContentStore(Path root) {
+        this.root = root;
+        this.incoming = root.resolve("incoming");
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Fichier d'une empreinte (existant ou non)
+    public Path resolve(String digest) {
+        return root.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    public boolean contains(String digest) {
+        return Files.exists(resolve(digest));
+    }
+
+    public StoredContent store(FileUpload upload) throws IOException {
+        try (InputStream in = upload.getInputStream()) {
+            return store(in, upload.getFileName(), upload.getContentType());
+        }
+    }
+
+    public StoredContent store(InputStream in, String fileName, String contentType) throws IOException {
+        Files.createDirectories(incoming);
+        Path temp = Files.createTempFile(incoming, "upload-", ".part");
+        try {
+            MessageDigest digest = newDigest();
+            long size = spool(in, temp, digest);
+            String hex = toHex(digest.digest());
+
+            Path blob = resolve(hex);
+            boolean deduplicated = Files.exists(blob);
+            if (!deduplicated) {
+                Files.createDirectories(blob.getParent());
+                deduplicated = !moveIntoPlace(temp, blob);
+            }
+            return new StoredContent(hex, size, blob, deduplicated, fileName, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Lecture et écriture dans ce thread ; mise à jour de l'empreinte enchaînée sur un autre, dans l'ordre des blocs
+    private static long spool(InputStream in, Path temp, MessageDigest digest) throws IOException {
+        byte[][] buffers = new byte[BUFFERS][CHUNK_SIZE];
+        CompletableFuture<?>[] hashed = new CompletableFuture<?>[BUFFERS];
+        CompletableFuture<?> chain = CompletableFuture.completedFuture(null);
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            for (int index = 0; ; index = (index + 1) % BUFFERS) {
+                // Le bloc ne peut être réutilisé qu'une fois haché
+                if (hashed[index] != null) await(hashed[index]);
+                byte[] buffer = buffers[index];
+                int length = readChunk(in, buffer);
+                if (length <= 0) break;
+
+                chain = chain.thenRunAsync(() -> digest.update(buffer, 0, length), HASHERS);
+                hashed[index] = chain;
+                out.write(buffer, 0, length);
+                size += length;
+                if (length < buffer.length) break;
+            }
+        }
+        await(chain);
+        return size;
+    }
+
+    // Remplit le bloc autant que possible ; 0 en fin de flux
+    private static int readChunk(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) break;
+            length += read;
+        }
+        return length;
+    }
+
+    // true si ce dépôt a créé le blob, false si un envoi concurrent du même contenu est arrivé avant.
+    // Lien physique : link(2) échoue si la cible existe, contrairement à rename(2) (ATOMIC_MOVE) qui la remplace
+    // sans erreur sous Linux et macOS ; le blob apparaît d'un coup, déjà complet. temp est supprimé par l'appelant
+    private static boolean moveIntoPlace(Path temp, Path blob) throws IOException {
+        try {
+            Files.createLink(blob, temp);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // Liens physiques non pris en charge : déplacement sans remplacement, existence vérifiée par move
+            try {
+                Files.move(temp, blob);
+                return true;
+            } catch (FileAlreadyExistsException exists) {
+                return false;
+            }
+        }
+    }
+
+    private static void await(CompletableFuture<?> future) throws IOException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw new IOException("Hashing failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,198 @@
+package other;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+
+import annotation.Scope;
+
+// Fournit les instances d'un contrôleur selon son @Scope.
+// Le constructeur et les champs MySession à injecter sont résolus une seule fois par classe.
+public abstract class ControllerProvider {
+
+    protected final Class<?> controllerClass;
+    private final Constructor<?> constructor;
+    private final Field[] sessionFields;
+
+    protected ControllerProvider(Class<?> controllerClass) {
+        this.controllerClass = controllerClass;
+        try {
+            this.constructor = controllerClass.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Controller " + controllerClass.getName() + " needs a no-arg constructor", e);
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (Field field : controllerClass.getDeclaredFields()) {
+            if (field.getType().equals(MySession.class)) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        this.sessionFields = fields.toArray(new Field[0]);
+    }
+
+    public static ControllerProvider forClass(Class<?> controllerClass) {
+        Scope scope = controllerClass.getAnnotation(Scope.class);
+        Scope.Type type = scope == null ? Scope.Type.REQUEST : scope.value();
+        switch (type) {
+            case SINGLETON: return new Singleton(controllerClass);
+            case POOLED:    return new Pooled(controllerClass, scope.poolSize());
+            default:        return new PerRequest(controllerClass);
+        }
+    }
+
+    // Instance à utiliser pour la requête ; toujours suivi d'un release(), ou de detach() puis recycle()
+    public abstract Object acquire(HttpServletRequest request) throws ServletException;
+
+    // Fin de l'appel synchrone, sur le thread qui a fait acquire()
+    public void release(Object instance) {
+        detach();
+        recycle(instance);
+    }
+
+    // Délie la requête (MySession) du thread appelant : toujours sur le thread qui a fait acquire(),
+    // dès le retour de la méthode du contrôleur
+    public void detach() {}
+
+    // Rend l'instance ; pour un résultat asynchrone, appelé à l'achèvement, depuis n'importe quel thread
+    public void recycle(Object instance) {}
+
+    public Class<?> getControllerClass() {
+        return controllerClass;
+    }
+
+    protected Object newInstance() throws ServletException {
+        try {
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ServletException("Unable to instantiate controller: " + controllerClass.getName(), e);
+        }
+    }
+
+    protected void injectSessions(Object instance, MySession session) throws ServletException {
+        try {
+            for (Field field : sessionFields) {
+                field.set(instance, session);
+            }
+        } catch (IllegalAccessException e) {
+            throw new ServletException("Unable to inject MySession into " + controllerClass.getName(), e);
+        }
+    }
+
+    protected boolean hasSessionFields() {
+        return sessionFields.length > 0;
+    }
+
+    // Comportement historique : construction et injection à chaque requête
+    static class PerRequest extends ControllerProvider {
+
+        PerRequest(Class<?> controllerClass) {
+            super(controllerClass);
+        }
+
+        @Override
+        public Object acquire(HttpServletRequest request) throws ServletException {
+            Object instance = newInstance();
+            if (hasSessionFields()) injectSessions(instance, new MySession(request.getSession()));
+            return instance;
+        }
+    }
+
+    // Instance unique créée au premier appel ; MySession est un proxy lié à la requête courante
+    static class Singleton extends ControllerProvider {
+
+        private volatile Object instance;
+
+        Singleton(Class<?> controllerClass) {
+            super(controllerClass);
+        }
+
+        @Override
+        public Object acquire(HttpServletRequest request) throws ServletException {
+            Object current = instance;
+            if (current == null) {
+                synchronized (this) {
+                    current = instance;
+                    if (current == null) {
+                        current = newInstance();
+                        injectSessions(current, new RequestScopedSession());
+                        instance = current;
+                    }
+                }
+            }
+            RequestScopedSession.bind(request);
+            return current;
+        }
+
+        @Override
+        public void detach() {
+            RequestScopedSession.unbind();
+        }
+    }
+
+    // Au plus poolSize instances, créées à la demande ; une requête attend si toutes sont occupées
+    static class Pooled extends ControllerProvider {
+
+        private final BlockingQueue<Object> idle;
+        private final int poolSize;
+        private final AtomicInteger created = new AtomicInteger();
+
+        Pooled(Class<?> controllerClass, int poolSize) {
+            super(controllerClass);
+            if (poolSize < 1) {
+                throw new IllegalArgumentException("poolSize must be positive for " + controllerClass.getName());
+            }
+            this.poolSize = poolSize;
+            this.idle = new ArrayBlockingQueue<>(poolSize);
+        }
+
+        @Override
+        public Object acquire(HttpServletRequest request) throws ServletException {
+            Object instance = idle.poll();
+            if (instance == null) instance = createOrWait();
+            RequestScopedSession.bind(request);
+            return instance;
+        }
+
+        private Object createOrWait() throws ServletException {
+            int count;
+            while ((count = created.get()) < poolSize) {
+                if (created.compareAndSet(count, count + 1)) {
+                    try {
+                        Object instance = newInstance();
+                        injectSessions(instance, new RequestScopedSession());
+                        return instance;
+                    } catch (ServletException | RuntimeException e) {
+                        created.decrementAndGet();
+                        throw e;
+                    }
+                }
+            }
+            try {
+                return idle.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for a " + controllerClass.getName() + " instance", e);
+            }
+        }
+
+        @Override
+        public void detach() {
+            RequestScopedSession.unbind();
+        }
+
+        @Override
+        public void recycle(Object instance) {
+            idle.offer(instance);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package other;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Fichier renvoyé par un contrôleur : envoyé sans passer par le tas, avec Content-Length exact,
+// Range (206, une plage), ETag / Last-Modified et requêtes conditionnelles (304, If-Range).
+// Sous Tomcat, l'envoi est délégué au sendfile du connecteur ; sinon FileChannel.transferTo vers la réponse.
+public class FileDownload {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final Path path;
+    private String fileName;
+    private String contentType;
+    private boolean attachment = true;
+    // ETag fort (empreinte du contenu) si connu, sinon dérivé de la taille et de la date
+    private String etag;
+
+    private FileDownload(Path path) {
+        this.path = path;
+        this.fileName = path.getFileName().toString();
+    }
+
+    public static FileDownload of(Path path) {
+        return new FileDownload(path);
+    }
+
+    // Contenu du ContentStore : l'empreinte sert d'ETag
+    public static FileDownload of(StoredContent content) {
+        FileDownload download = new FileDownload(content.getPath());
+        download.etag = "\"" + content.getDigest() + "\"";
+        if (content.getFileName() != null) download.fileName = content.getFileName();
+        download.contentType = content.getContentType();
+        return download;
+    }
+
+    // Nom proposé au navigateur
+    public FileDownload fileName(String fileName) {
+        this.fileName = fileName;
+        return this;
+    }
+
+    public FileDownload contentType(String contentType) {
+        this.contentType = contentType;
+        return this;
+    }
+
+    // Affichage dans le navigateur plutôt que téléchargement
+    public FileDownload inline() {
+        this.attachment = false;
+        return this;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = Files.size(path);
+        // Précision HTTP : la seconde
+        long lastModified = Files.getLastModifiedTime(path).toMillis() / 1000 * 1000;
+        String tag = etag != null ? etag : "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", tag);
+        response.setDateHeader("Last-Modified", lastModified);
+
+        if (notModified(request, tag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader("Range");
+        if (range != null && rangeApplies(request, tag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        response.setContentType(resolveContentType(request));
+        response.setHeader("Content-Disposition", (attachment ? "attachment" : "inline") + "; filename=\""
+                + fileName.replaceAll("[^\\x20-\\x7E]|\"", "_") + "\"; filename*=UTF-8''" + URLEncoder.encode(fileName, StandardCharsets.UTF_8).replace("+", "%20"));
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) return;
+
+        send(path, start, count, request, response);
+    }
+
+    // Envoi de count octets à partir de start : sendfile du connecteur si possible, sinon FileChannel.transferTo
+    static void send(Path path, long start, long count, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!request.isAsyncStarted() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Le connecteur envoie le fichier lui-même (sendfile), après le retour de la requête ;
+            // pas en mode asynchrone, où il ne reprend pas la main avant complete()
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // If-None-Match prime sur If-Modified-Since
+    private static boolean notModified(HttpServletRequest request, String tag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) return matches(ifNoneMatch, tag);
+        try {
+            long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // If-Range : la plage ne vaut que si le fichier n'a pas changé depuis la première partie reçue
+    private static boolean rangeApplies(HttpServletRequest request, String tag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(tag);
+        try {
+            return request.getDateHeader("If-Range") == lastModified;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static boolean matches(String header, String tag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) value = value.substring(2);
+            if (value.equals("*") || value.equals(tag)) return true;
+        }
+        return false;
+    }
+
+    // {début, fin} inclus ; {} : en-tête ignoré (plusieurs plages ou syntaxe inconnue) ; null : non satisfaisable
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) return new long[0];
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) return new long[0];
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // bytes=-N : les N derniers octets
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return null;
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) return null;
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private String resolveContentType(HttpServletRequest request) {
+        if (contentType != null) return contentType;
+        String type = request.getServletContext() == null ? null : request.getServletContext().getMimeType(fileName);
+        if (type == null) {
+            try {
+                type = Files.probeContentType(path);
+            } catch (IOException e) {
+                // Type inconnu
+            }
+        }
+        return type != null ? type : "application/octet-stream";
+    }
+}
@@ -1,21 +1,54 @@
-package other; 
+package other;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
+import jakarta.servlet.http.Part;
+
+// Fichier reçu : adossé à la Part multipart (ou à un fichier temporaire), jamais chargé en mémoire par défaut.
+// getFileData() ne lit les octets qu'au premier appel ; saveFile() / transferTo() passent par Part.write()
+// (simple renommage quand le conteneur a mis la Part sur disque). La Part n'est lisible que pendant la requête.
 public class FileUpload {
     private String fileName;
     private String filePath;
     private byte[] fileData;
 
+    // Source du contenu quand fileData n'est pas encore chargé
+    private Part part;
+    private Path tempFile;
+    // tempFile appartient au framework (envoi reprenable réclamé) : transferTo le déplace au lieu de le copier
+    private boolean ownsTempFile;
+    private long size = -1;
+    private String contentType;
+
     public FileUpload(String fileName, String filePath, byte[] fileData) {
         this.fileName = fileName;
         this.filePath = filePath;
         this.fileData = fileData;
     }
 
+    // Fichier encore dans la Part multipart (mémoire ou disque selon le conteneur)
+    public FileUpload(String fileName, String filePath, Part part) {
+        this(fileName, filePath, (byte[]) null);
+        this.part = part;
+        this.size = part.getSize();
+        this.contentType = part.getContentType();
+    }
+
+    // Fichier déjà écrit dans un fichier temporaire
+    public FileUpload(String fileName, String filePath, Path tempFile) throws IOException {
+        this(fileName, filePath, (byte[]) null);
+        this.tempFile = tempFile;
+        this.ownsTempFile = true;
+        this.size = Files.size(tempFile);
+    }
+
     // Getters et setters
     public String getFileName() {
         return fileName;
@@ -33,17 +66,86 @@ public class FileUpload {
         this.filePath = filePath;
     }
 
+    // Contenu complet en mémoire : à éviter pour les gros fichiers (voir getInputStream / transferTo)
     public byte[] getFileData() {
+        if (fileData == null && (part != null || tempFile != null)) {
+            try (InputStream in = getInputStream()) {
+                fileData = in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to read uploaded file " + fileName + ": " + e.getMessage(), e);
+            }
+        }
         return fileData;
     }
 
     public void setFileData(byte[] fileData) {
         this.fileData = fileData;
+        this.part = null;
+        this.tempFile = null;
+        this.size = fileData == null ? -1 : fileData.length;
+    }
+
+    public long getSize() {
+        return fileData != null ? fileData.length : size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    // Lecture en flux, sans charger le fichier
+    public InputStream getInputStream() throws IOException {
+        if (fileData != null) return new ByteArrayInputStream(fileData);
+        if (tempFile != null) return Files.newInputStream(tempFile);
+        if (part != null) return part.getInputStream();
+        throw new IOException("No content for uploaded file " + fileName);
+    }
+
+    // Copie vers target (remplacé s'il existe). Part encore présente : Part.write(), qui déplace le fichier
+    // temporaire du conteneur au lieu de le recopier ; fichier temporaire du framework : simple renommage.
+    // Ensuite le contenu est lu depuis target
+    public void transferTo(Path target) throws IOException {
+        if (fileData == null && part != null) {
+            Files.deleteIfExists(target);
+            part.write(target.toAbsolutePath().toString());
+            part = null;
+            tempFile = target;
+            return;
+        }
+        if (fileData == null && tempFile != null && ownsTempFile) {
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                // Autre système de fichiers : copie puis suppression
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = target;
+            ownsTempFile = false;
+            return;
+        }
+        if (fileData == null && tempFile != null) {
+            Files.copy(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        try (InputStream in = getInputStream()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Rangement dédupliqué dans le ContentStore de l'application (voir Utils.getContentStore) :
+    // un fichier déjà reçu n'est pas réécrit, seule la référence est renvoyée
+    public StoredContent store() throws IOException {
+        return Utils.getContentStore().store(this);
     }
 
-    // Méthode pour enregistrer le fichier sur le disque
+    // Méthode pour enregistrer le fichier sur le disque (dossier filePath, créé au besoin)
     public void saveFile() throws IOException {
-        Path path = Paths.get(filePath, fileName);
-        Files.write(path, fileData);
+        Path directory = Paths.get(filePath);
+        Files.createDirectories(directory);
+        transferTo(directory.resolve(fileName));
     }
 }
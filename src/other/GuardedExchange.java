@@ -0,0 +1,365 @@
+package other;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestWrapper;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Requête exécutée hors du thread du conteneur (init-param virtual_threads) : le délai (onTimeout) et le thread
+// d'exécution peuvent vouloir terminer la requête en même temps. Un état atomique (CAS, aucun verrou) décide du
+// gagnant. Chaque écriture dans la réponse s'annonce (writers) et vérifie l'état avant d'écrire, hors de tout
+// moniteur : le délai ne bloque jamais sur un client lent. Si des écritures sont en cours quand la requête se
+// termine, complete() (et le 503 du délai) est fait par la dernière qui sort : rien n'est écrit dans une réponse
+// déjà rendue au conteneur, même si le contrôleur continue après le délai.
+// Un SseEmitter ou un CompletionStage prend la fin de la requête à son compte par handOff() (voir Utils.startAsync).
+public final class GuardedExchange {
+
+    private static final int OPEN = 0;
+    // Fin confiée au gestionnaire asynchrone : l'exchange ne termine plus rien
+    private static final int HANDED_OFF = 1;
+    private static final int FINISHED = 2;
+    private static final int TIMED_OUT = 3;
+
+    private final AsyncContext asyncContext;
+    private final HttpServletResponse rawResponse;
+    private final AtomicInteger state = new AtomicInteger(OPEN);
+    // Écritures en cours dans la réponse
+    private final AtomicInteger writers = new AtomicInteger();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private final GuardedRequest request;
+    private final GuardedResponse response;
+
+    public GuardedExchange(AsyncContext asyncContext, HttpServletRequest request, HttpServletResponse response) {
+        this.asyncContext = asyncContext;
+        this.rawResponse = response;
+        this.request = new GuardedRequest(request);
+        this.response = new GuardedResponse(response);
+    }
+
+    public HttpServletRequest getRequest() {
+        return request;
+    }
+
+    public HttpServletResponse getResponse() {
+        return response;
+    }
+
+    AsyncContext getAsyncContext() {
+        return asyncContext;
+    }
+
+    // Exchange d'une requête (éventuellement enveloppée), ou null hors mode thread virtuel
+    static GuardedExchange of(ServletRequest request) {
+        while (request != null) {
+            if (request instanceof GuardedRequest) return ((GuardedRequest) request).exchange();
+            request = request instanceof ServletRequestWrapper ? ((ServletRequestWrapper) request).getRequest() : null;
+        }
+        return null;
+    }
+
+    // Le gestionnaire asynchrone devient responsable de complete() ; false si la requête est déjà terminée
+    boolean handOff() {
+        return state.compareAndSet(OPEN, HANDED_OFF);
+    }
+
+    // onTimeout : 503 et fin de la requête, sauf si elle est déjà terminée ou confiée à un gestionnaire
+    public void timeout() {
+        if (state.compareAndSet(OPEN, TIMED_OUT)) completeWhenIdle();
+    }
+
+    // Fin de l'exécution sur le thread virtuel
+    public void finish() {
+        if (state.compareAndSet(OPEN, FINISHED)) completeWhenIdle();
+    }
+
+    private boolean isClosed() {
+        return state.get() >= FINISHED;
+    }
+
+    // Requête terminée et plus aucune écriture en cours : complete(), une seule fois
+    private void completeWhenIdle() {
+        if (writers.get() != 0 || !completed.compareAndSet(false, true)) return;
+        if (state.get() == TIMED_OUT) {
+            try {
+                if (!rawResponse.isCommitted()) rawResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Request timed out");
+            } catch (IOException | IllegalStateException e) {
+                // Client parti
+            }
+        }
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Contexte déjà terminé par le conteneur
+        }
+    }
+
+    // Annonce une écriture ; false (rien à défaire) si la requête est déjà terminée
+    private boolean enter() {
+        writers.incrementAndGet();
+        if (!isClosed()) return true;
+        exit();
+        return false;
+    }
+
+    private void exit() {
+        if (writers.decrementAndGet() == 0 && isClosed()) completeWhenIdle();
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    // Écriture dans le flux : une écriture après la fin échoue comme une déconnexion du client
+    private void written(Action action) throws IOException {
+        if (!enter()) throw new IOException("Request already completed (timed out)");
+        try {
+            action.run();
+        } finally {
+            exit();
+        }
+    }
+
+    private void guarded(Action action) throws IOException {
+        if (!enter()) throw new IllegalStateException("Request already completed (timed out)");
+        try {
+            action.run();
+        } finally {
+            exit();
+        }
+    }
+
+    private void guardedUnchecked(Runnable action) {
+        if (!enter()) throw new IllegalStateException("Request already completed (timed out)");
+        try {
+            action.run();
+        } finally {
+            exit();
+        }
+    }
+
+    private final class GuardedRequest extends HttpServletRequestWrapper {
+        GuardedRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        GuardedExchange exchange() {
+            return GuardedExchange.this;
+        }
+    }
+
+    private final class GuardedResponse extends HttpServletResponseWrapper {
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+
+        GuardedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                ServletOutputStream[] delegate = new ServletOutputStream[1];
+                guarded(() -> delegate[0] = super.getOutputStream());
+                stream = new GuardedOutputStream(delegate[0]);
+            }
+            return stream;
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter[] delegate = new PrintWriter[1];
+                guarded(() -> delegate[0] = super.getWriter());
+                writer = new PrintWriter(new GuardedWriter(delegate[0]));
+            }
+            return writer;
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            guarded(() -> super.sendError(sc, msg));
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            guarded(() -> super.sendError(sc));
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            guarded(() -> super.sendRedirect(location));
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            guarded(super::flushBuffer);
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            guardedUnchecked(() -> super.setStatus(sc));
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            guardedUnchecked(() -> super.setHeader(name, value));
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            guardedUnchecked(() -> super.addHeader(name, value));
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            guardedUnchecked(() -> super.setDateHeader(name, date));
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+            guardedUnchecked(() -> super.addDateHeader(name, date));
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            guardedUnchecked(() -> super.setIntHeader(name, value));
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            guardedUnchecked(() -> super.addIntHeader(name, value));
+        }
+
+        @Override
+        public void addCookie(Cookie cookie) {
+            guardedUnchecked(() -> super.addCookie(cookie));
+        }
+
+        @Override
+        public void setContentType(String type) {
+            guardedUnchecked(() -> super.setContentType(type));
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+            guardedUnchecked(() -> super.setCharacterEncoding(charset));
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            guardedUnchecked(() -> super.setContentLength(len));
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            guardedUnchecked(() -> super.setContentLengthLong(len));
+        }
+
+        @Override
+        public void setLocale(Locale locale) {
+            guardedUnchecked(() -> super.setLocale(locale));
+        }
+
+        @Override
+        public void setBufferSize(int size) {
+            guardedUnchecked(() -> super.setBufferSize(size));
+        }
+
+        @Override
+        public void reset() {
+            guardedUnchecked(super::reset);
+        }
+
+        @Override
+        public void resetBuffer() {
+            guardedUnchecked(super::resetBuffer);
+        }
+    }
+
+    // Flux de la réponse : une écriture après la fin échoue comme une déconnexion du client
+    private final class GuardedOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        GuardedOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            written(() -> delegate.write(b));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            written(() -> delegate.write(b, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            written(delegate::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!enter()) return;
+            try {
+                delegate.close();
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return !isClosed() && delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+
+    private final class GuardedWriter extends Writer {
+        private final Writer delegate;
+
+        GuardedWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            written(() -> delegate.write(cbuf, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            written(delegate::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!enter()) return;
+            try {
+                delegate.close();
+            } finally {
+                exit();
+            }
+        }
+    }
+}
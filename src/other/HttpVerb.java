@@ -0,0 +1,27 @@
+package other;
+
+// Verbes HTTP supportés par les annotations @Get / @Post
+public enum HttpVerb {
+    GET,
+    POST;
+
+    // Conversion sans allocation depuis request.getMethod() ou setVerbString()
+    public static HttpVerb fromString(String verb) {
+        if (verb == null) return null;
+        switch (verb) {
+            case "GET":
+            case "get":
+            // HEAD : même route que GET, le conteneur n'envoie pas le corps
+            case "HEAD":
+                return GET;
+            case "POST":
+            case "post":
+                return POST;
+            default:
+                for (HttpVerb httpVerb : values()) {
+                    if (httpVerb.name().equalsIgnoreCase(verb)) return httpVerb;
+                }
+                return null;
+        }
+    }
+}
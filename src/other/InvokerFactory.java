@@ -0,0 +1,102 @@
+package other;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+// Génère un MethodInvoker par méthode de contrôleur :
+//  - LambdaMetafactory (classe cachée, appel direct inlinable par le JIT) jusqu'à MAX_ARITY paramètres
+//  - sinon un MethodHandle "spreader" en invokeExact
+//  - en dernier recours Method.invoke
+public class InvokerFactory {
+
+    public static final int MAX_ARITY = 6;
+
+    // Interfaces fonctionnelles génériques : le receveur éventuel compte comme premier argument
+    public interface Fn0 { Object apply(); }
+    public interface Fn1 { Object apply(Object a0); }
+    public interface Fn2 { Object apply(Object a0, Object a1); }
+    public interface Fn3 { Object apply(Object a0, Object a1, Object a2); }
+    public interface Fn4 { Object apply(Object a0, Object a1, Object a2, Object a3); }
+    public interface Fn5 { Object apply(Object a0, Object a1, Object a2, Object a3, Object a4); }
+    public interface Fn6 { Object apply(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5); }
+    public interface Fn7 { Object apply(Object a0, Object a1, Object a2, Object a3, Object a4, Object a5, Object a6); }
+
+    private static final Class<?>[] FUNCTIONS = {
+        Fn0.class, Fn1.class, Fn2.class, Fn3.class, Fn4.class, Fn5.class, Fn6.class, Fn7.class
+    };
+
+    public static MethodInvoker create(Method method) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(method);
+
+            if (method.getParameterCount() <= MAX_ARITY && method.getReturnType() != void.class) {
+                try {
+                    return lambdaInvoker(lookup, handle, Modifier.isStatic(method.getModifiers()));
+                } catch (Throwable e) {
+                    System.out.println("LambdaMetafactory unavailable for " + method + ", using MethodHandle: " + e.getMessage());
+                }
+            }
+            return handleInvoker(handle, method);
+
+        } catch (IllegalAccessException e) {
+            System.out.println("No lookup access for " + method + ", using reflection: " + e.getMessage());
+            return method::invoke;
+        }
+    }
+
+    private static MethodInvoker lambdaInvoker(MethodHandles.Lookup lookup, MethodHandle handle, boolean isStatic)
+        throws Throwable
+    {
+        int arity = handle.type().parameterCount();
+        Class<?> function = FUNCTIONS[arity];
+        MethodType erased = MethodType.genericMethodType(arity);
+
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(function),
+                erased, handle, handle.type().wrap());
+        Object fn = site.getTarget().invoke();
+
+        // Le receveur (méthode d'instance) est passé en premier argument
+        int offset = isStatic ? 0 : 1;
+        switch (arity - offset) {
+            case 0:
+                if (isStatic) { Fn0 f = (Fn0) fn; return (target, args) -> f.apply(); }
+                else { Fn1 f = (Fn1) fn; return (target, args) -> f.apply(target); }
+            case 1:
+                if (isStatic) { Fn1 f = (Fn1) fn; return (target, args) -> f.apply(args[0]); }
+                else { Fn2 f = (Fn2) fn; return (target, args) -> f.apply(target, args[0]); }
+            case 2:
+                if (isStatic) { Fn2 f = (Fn2) fn; return (target, args) -> f.apply(args[0], args[1]); }
+                else { Fn3 f = (Fn3) fn; return (target, args) -> f.apply(target, args[0], args[1]); }
+            case 3:
+                if (isStatic) { Fn3 f = (Fn3) fn; return (target, args) -> f.apply(args[0], args[1], args[2]); }
+                else { Fn4 f = (Fn4) fn; return (target, args) -> f.apply(target, args[0], args[1], args[2]); }
+            case 4:
+                if (isStatic) { Fn4 f = (Fn4) fn; return (target, args) -> f.apply(args[0], args[1], args[2], args[3]); }
+                else { Fn5 f = (Fn5) fn; return (target, args) -> f.apply(target, args[0], args[1], args[2], args[3]); }
+            case 5:
+                if (isStatic) { Fn5 f = (Fn5) fn; return (target, args) -> f.apply(args[0], args[1], args[2], args[3], args[4]); }
+                else { Fn6 f = (Fn6) fn; return (target, args) -> f.apply(target, args[0], args[1], args[2], args[3], args[4]); }
+            case 6:
+                if (isStatic) { Fn6 f = (Fn6) fn; return (target, args) -> f.apply(args[0], args[1], args[2], args[3], args[4], args[5]); }
+                else { Fn7 f = (Fn7) fn; return (target, args) -> f.apply(target, args[0], args[1], args[2], args[3], args[4], args[5]); }
+            default:
+                throw new IllegalStateException("Unsupported arity: " + arity);
+        }
+    }
+
+    private static MethodInvoker handleInvoker(MethodHandle handle, Method method) {
+        int parameterCount = method.getParameterCount();
+        MethodHandle spread = handle.asSpreader(Object[].class, parameterCount);
+        if (Modifier.isStatic(method.getModifiers())) {
+            spread = MethodHandles.dropArguments(spread, 0, Object.class);
+        }
+        MethodHandle exact = spread.asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        return (target, args) -> exact.invokeExact(target, args);
+    }
+}
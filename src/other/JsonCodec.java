@@ -0,0 +1,9 @@
+package other;
+
+import java.io.IOException;
+
+// Écriture JSON d'une valeur dans un JsonOutput ; générée une fois par type (voir JsonCodecs)
+@FunctionalInterface
+public interface JsonCodec {
+    void write(Object value, JsonOutput out) throws IOException;
+}
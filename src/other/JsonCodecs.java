@@ -0,0 +1,395 @@
+package other;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonWriter;
+
+// Génère au démarrage les JsonCodec des types de retour @RestApi : accès aux champs par MethodHandle
+// (sans java.lang.reflect à l'écriture), noms de champs déjà échappés et encodés en UTF-8.
+// Sortie identique à Gson par défaut (champs null omis, échappement HTML-safe) ;
+// les types non pris en charge (JDK hors types simples, adaptateurs Gson...) passent par Gson.
+public final class JsonCodecs {
+
+    private static final Map<Type, JsonCodec> CODECS = new ConcurrentHashMap<>();
+
+    private static final JsonCodec STRING = (value, out) -> out.writeString((CharSequence) value);
+    private static final JsonCodec CHARACTER = (value, out) -> out.writeString(value.toString());
+    private static final JsonCodec BOOLEAN = (value, out) -> out.writeBoolean((Boolean) value);
+    private static final JsonCodec INTEGRAL = (value, out) -> out.writeLong(((Number) value).longValue());
+    private static final JsonCodec DOUBLE = (value, out) -> out.writeDouble((Double) value);
+    private static final JsonCodec FLOAT = (value, out) -> out.writeFloat((Float) value);
+    private static final JsonCodec NUMBER = (value, out) -> out.writeNumber((Number) value);
+    // Type déclaré Object : dispatch sur la classe réelle ; un Object nu s'écrit {} comme avec Gson
+    private static final JsonCodec DYNAMIC = (value, out) -> {
+        if (value.getClass() == Object.class) {
+            out.writeByte('{');
+            out.writeByte('}');
+        } else {
+            forType(value.getClass()).write(value, out);
+        }
+    };
+
+    private JsonCodecs() {}
+
+    // Codec du type déclaré ; les valeurs null s'écrivent null
+    public static JsonCodec forType(Type type) {
+        JsonCodec codec = CODECS.get(type);
+        if (codec != null) return codec;
+
+        synchronized (CODECS) {
+            codec = CODECS.get(type);
+            if (codec == null) {
+                // Types en cours de construction : les références récursives pointent vers le codec final
+                Map<Type, Lazy> building = new HashMap<>();
+                // Comme Gson : une sous-classe du type déclaré s'écrit avec ses propres champs
+                codec = nullSafe(element(type, building));
+                for (Lazy lazy : building.values()) lazy.resolve();
+                CODECS.put(type, codec);
+            }
+            return codec;
+        }
+    }
+
+    private static JsonCodec nullSafe(JsonCodec codec) {
+        return (value, out) -> {
+            if (value == null) out.writeNull();
+            else codec.write(value, out);
+        };
+    }
+
+    // Codec d'un élément / champ : valeur non null, type déclaré éventuellement surchargé à l'exécution
+    private static JsonCodec element(Type type, Map<Type, Lazy> building) {
+        Class<?> raw = rawType(type);
+        JsonCodec cached = CODECS.get(type);
+        JsonCodec declared;
+        if (cached != null) {
+            declared = cached;
+        } else if (building.containsKey(type)) {
+            declared = building.get(type);
+        } else {
+            declared = create(type, building);
+        }
+        if (raw == Object.class || Modifier.isFinal(raw.getModifiers()) || raw.isPrimitive() || raw.isArray()
+                || raw.isEnum() || type instanceof ParameterizedType) {
+            return declared;
+        }
+        // Comme Gson : une sous-classe s'écrit avec ses propres champs
+        return (value, out) -> {
+            if (value.getClass() == raw) declared.write(value, out);
+            else forType(value.getClass()).write(value, out);
+        };
+    }
+
+    private static JsonCodec create(Type type, Map<Type, Lazy> building) {
+        if (type instanceof GenericArrayType) {
+            return arrayCodec(element(((GenericArrayType) type).getGenericComponentType(), building));
+        }
+        if (!(type instanceof Class) && !(type instanceof ParameterizedType)) {
+            // Variable de type ou joker : type réel connu seulement à l'exécution
+            return DYNAMIC;
+        }
+
+        Class<?> raw = rawType(type);
+        if (raw == Object.class) return DYNAMIC;
+        if (raw == String.class) return STRING;
+        if (raw == Character.class || raw == char.class) return CHARACTER;
+        if (raw == Boolean.class || raw == boolean.class) return BOOLEAN;
+        if (raw == Integer.class || raw == int.class || raw == Long.class || raw == long.class
+                || raw == Short.class || raw == short.class || raw == Byte.class || raw == byte.class) return INTEGRAL;
+        if (raw == Double.class || raw == double.class) return DOUBLE;
+        if (raw == Float.class || raw == float.class) return FLOAT;
+        if (raw == BigDecimal.class || raw == BigInteger.class) return NUMBER;
+        if (raw.isEnum() && !raw.isAnnotationPresent(JsonAdapter.class)) return enumCodec(raw);
+
+        if (raw == int[].class) return intArrayCodec();
+        if (raw == long[].class) return longArrayCodec();
+        if (raw.isArray() && !raw.getComponentType().isPrimitive()) return arrayCodec(element(raw.getComponentType(), building));
+
+        if (Collection.class.isAssignableFrom(raw)) return collectionCodec(element(typeArgument(type, 0), building));
+        if (Map.class.isAssignableFrom(raw) && typeArgument(type, 0) == String.class) {
+            return mapCodec(element(typeArgument(type, 1), building));
+        }
+
+        if (type instanceof Class && isBean(raw)) {
+            Lazy lazy = new Lazy();
+            building.put(type, lazy);
+            JsonCodec bean = beanCodec(raw, building);
+            lazy.target = bean;
+            return bean;
+        }
+        return gsonCodec(type);
+    }
+
+    // Repli : sérialisation Gson écrite en UTF-8 dans le même tampon
+    private static JsonCodec gsonCodec(Type type) {
+        return (value, out) -> {
+            JsonWriter writer = JsonResponseWriter.GSON.newJsonWriter(out.asWriter());
+            JsonResponseWriter.GSON.toJson(value, type, writer);
+            writer.flush();
+        };
+    }
+
+    private static JsonCodec enumCodec(Class<?> enumType) {
+        Object[] constants = enumType.getEnumConstants();
+        byte[][] names = new byte[constants.length][];
+        for (int i = 0; i < constants.length; i++) {
+            String name = ((Enum<?>) constants[i]).name();
+            try {
+                SerializedName serializedName = enumType.getField(name).getAnnotation(SerializedName.class);
+                if (serializedName != null) name = serializedName.value();
+            } catch (NoSuchFieldException e) {
+                // Constante sans champ public : nom par défaut
+            }
+            names[i] = encodeString(name);
+        }
+        return (value, out) -> out.writeRaw(names[((Enum<?>) value).ordinal()]);
+    }
+
+    private static JsonCodec intArrayCodec() {
+        return (value, out) -> {
+            int[] array = (int[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) out.writeByte(',');
+                out.writeLong(array[i]);
+            }
+            out.writeByte(']');
+        };
+    }
+
+    private static JsonCodec longArrayCodec() {
+        return (value, out) -> {
+            long[] array = (long[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) out.writeByte(',');
+                out.writeLong(array[i]);
+            }
+            out.writeByte(']');
+        };
+    }
+
+    private static JsonCodec arrayCodec(JsonCodec elementCodec) {
+        return (value, out) -> {
+            Object[] array = (Object[]) value;
+            out.writeByte('[');
+            for (int i = 0; i < array.length; i++) {
+                if (i > 0) out.writeByte(',');
+                writeNullable(array[i], elementCodec, out);
+            }
+            out.writeByte(']');
+        };
+    }
+
+    private static JsonCodec collectionCodec(JsonCodec elementCodec) {
+        return (value, out) -> {
+            out.writeByte('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) out.writeByte(',');
+                first = false;
+                writeNullable(element, elementCodec, out);
+            }
+            out.writeByte(']');
+        };
+    }
+
+    // Map<String, V> : les entrées de valeur null sont omises, comme avec Gson
+    private static JsonCodec mapCodec(JsonCodec valueCodec) {
+        return (value, out) -> {
+            out.writeByte('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() == null) continue;
+                if (!first) out.writeByte(',');
+                first = false;
+                out.writeString(String.valueOf(entry.getKey()));
+                out.writeByte(':');
+                valueCodec.write(entry.getValue(), out);
+            }
+            out.writeByte('}');
+        };
+    }
+
+    private static void writeNullable(Object value, JsonCodec codec, JsonOutput out) throws IOException {
+        if (value == null) out.writeNull();
+        else codec.write(value, out);
+    }
+
+    // Classe applicative sérialisable champ par champ, sans configuration Gson particulière
+    private static boolean isBean(Class<?> type) {
+        String name = type.getName();
+        if (type.isInterface() || type.isAnonymousClass() || type.isLocalClass() || type.isAnnotationPresent(JsonAdapter.class)
+                || name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jakarta.")) {
+            return false;
+        }
+        Set<String> names = new HashSet<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!isSerialized(field)) continue;
+                // Noms en double : Gson lève une erreur, on lui laisse ce cas
+                if (field.isAnnotationPresent(JsonAdapter.class) || !names.add(jsonName(field))) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSerialized(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic();
+    }
+
+    private static String jsonName(Field field) {
+        SerializedName serializedName = field.getAnnotation(SerializedName.class);
+        return serializedName != null ? serializedName.value() : field.getName();
+    }
+
+    // Champs de la classe puis de ses superclasses, dans l'ordre de Gson
+    private static JsonCodec beanCodec(Class<?> type, Map<Type, Lazy> building) {
+        List<Property> properties = new ArrayList<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            MethodHandles.Lookup lookup;
+            try {
+                lookup = MethodHandles.privateLookupIn(current, MethodHandles.lookup());
+            } catch (IllegalAccessException e) {
+                return gsonCodec(type);
+            }
+            for (Field field : current.getDeclaredFields()) {
+                if (!isSerialized(field)) continue;
+                try {
+                    properties.add(new Property(field, lookup.unreflectGetter(field), building));
+                } catch (IllegalAccessException e) {
+                    return gsonCodec(type);
+                }
+            }
+        }
+        Property[] fields = properties.toArray(new Property[0]);
+
+        return (value, out) -> {
+            out.writeByte('{');
+            boolean first = true;
+            for (Property property : fields) {
+                if (property.write(value, out, first)) first = false;
+            }
+            out.writeByte('}');
+        };
+    }
+
+    // Un champ : nom précalculé ("name": en UTF-8) et accesseur typé
+    private static final class Property {
+        private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+        final byte[] name;
+        final byte[] nameAfterComma;
+        final Class<?> type;
+        final MethodHandle getter;
+        final JsonCodec codec;
+
+        Property(Field field, MethodHandle getter, Map<Type, Lazy> building) {
+            byte[] quoted = encodeString(jsonName(field));
+            this.name = new byte[quoted.length + 1];
+            System.arraycopy(quoted, 0, name, 0, quoted.length);
+            name[quoted.length] = ':';
+            this.nameAfterComma = new byte[name.length + 1];
+            nameAfterComma[0] = ',';
+            System.arraycopy(name, 0, nameAfterComma, 1, name.length);
+
+            this.type = field.getType();
+            boolean primitive = type == int.class || type == long.class || type == double.class || type == boolean.class;
+            this.getter = primitive ? getter.asType(MethodType.methodType(type, Object.class)) : getter.asType(OBJECT_GETTER);
+            this.codec = type.isPrimitive() && !primitive ? create(type, building) : primitive ? null : element(field.getGenericType(), building);
+        }
+
+        // false si le champ est null (omis)
+        boolean write(Object instance, JsonOutput out, boolean first) throws IOException {
+            try {
+                if (type == int.class) {
+                    out.writeRaw(first ? name : nameAfterComma);
+                    out.writeLong((int) getter.invokeExact(instance));
+                } else if (type == long.class) {
+                    out.writeRaw(first ? name : nameAfterComma);
+                    out.writeLong((long) getter.invokeExact(instance));
+                } else if (type == double.class) {
+                    out.writeRaw(first ? name : nameAfterComma);
+                    out.writeDouble((double) getter.invokeExact(instance));
+                } else if (type == boolean.class) {
+                    out.writeRaw(first ? name : nameAfterComma);
+                    out.writeBoolean((boolean) getter.invokeExact(instance));
+                } else {
+                    Object value = (Object) getter.invokeExact(instance);
+                    if (value == null) return false;
+                    out.writeRaw(first ? name : nameAfterComma);
+                    codec.write(value, out);
+                }
+                return true;
+            } catch (IOException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Référence vers un codec en cours de construction (types récursifs)
+    private static final class Lazy implements JsonCodec {
+        JsonCodec target;
+
+        void resolve() {
+            if (target == null) throw new IllegalStateException("Unresolved JSON codec");
+        }
+
+        @Override
+        public void write(Object value, JsonOutput out) throws IOException {
+            target.write(value, out);
+        }
+    }
+
+    // Chaîne JSON échappée et encodée en UTF-8, calculée une fois avec les règles de JsonOutput
+    private static byte[] encodeString(String value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        JsonOutput out = new JsonOutput(() -> bytes);
+        try {
+            out.writeString(value);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out.release();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType) return Object[].class;
+        return Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (!(type instanceof ParameterizedType)) return Object.class;
+        return ((ParameterizedType) type).getActualTypeArguments()[index];
+    }
+}
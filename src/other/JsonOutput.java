@@ -0,0 +1,265 @@
+package other;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Tampon d'octets UTF-8 pour l'écriture JSON, emprunté à un pool et vidé vers la réponse quand il est plein.
+// Le flux de sortie n'est demandé qu'au premier vidage : une erreur avant ce point laisse la réponse intacte.
+public final class JsonOutput {
+
+    public static final int BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED = 64;
+    private static final ConcurrentLinkedQueue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    // Échappements identiques au JsonWriter HTML-safe de Gson (null : caractère écrit tel quel)
+    private static final String[] ESCAPES = new String[128];
+
+    static {
+        for (int c = 0; c < 0x20; c++) ESCAPES[c] = String.format("\\u%04x", c);
+        ESCAPES['"'] = "\\\"";
+        ESCAPES['\\'] = "\\\\";
+        ESCAPES['\t'] = "\\t";
+        ESCAPES['\b'] = "\\b";
+        ESCAPES['\n'] = "\\n";
+        ESCAPES['\r'] = "\\r";
+        ESCAPES['\f'] = "\\f";
+        ESCAPES['<'] = "\\u003c";
+        ESCAPES['>'] = "\\u003e";
+        ESCAPES['&'] = "\\u0026";
+        ESCAPES['='] = "\\u003d";
+        ESCAPES['\''] = "\\u0027";
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        OutputStream open() throws IOException;
+    }
+
+    private final Sink sink;
+    private OutputStream stream;
+    private byte[] buffer;
+    private int position;
+
+    public JsonOutput(Sink sink) {
+        this.sink = sink;
+        byte[] pooled = POOL.poll();
+        this.buffer = pooled != null ? pooled : new byte[BUFFER_SIZE];
+    }
+
+    // Vrai si tout le JSON tient dans le tampon (aucun octet encore envoyé)
+    public boolean isBuffered() {
+        return stream == null;
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public void writeByte(int b) throws IOException {
+        if (position == buffer.length) drain();
+        buffer[position++] = (byte) b;
+    }
+
+    public void writeRaw(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            drain();
+            if (bytes.length > buffer.length) {
+                stream().write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public void writeNull() throws IOException {
+        writeRaw(NULL);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        writeRaw(value ? TRUE : FALSE);
+    }
+
+    // Entier écrit chiffre par chiffre, sans String intermédiaire
+    public void writeLong(long value) throws IOException {
+        if (buffer.length - position < 20) drain();
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int start = position;
+        do {
+            buffer[position++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        // Chiffres écrits à l'envers
+        for (int i = start, j = position - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    // Même représentation que Gson ; NaN et infinis sont refusés comme par Gson
+    public void writeDouble(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException(value + " is not a valid double value as per JSON specification.");
+        }
+        writeAscii(Double.toString(value));
+    }
+
+    public void writeFloat(float value) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            throw new IllegalArgumentException(value + " is not a valid double value as per JSON specification.");
+        }
+        writeAscii(Float.toString(value));
+    }
+
+    public void writeNumber(Number value) throws IOException {
+        writeAscii(value.toString());
+    }
+
+    // Chaîne JSON : guillemets, échappements et encodage UTF-8
+    public void writeString(CharSequence value) throws IOException {
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 128) {
+                String escape = ESCAPES[c];
+                if (escape == null) {
+                    if (position == buffer.length) drain();
+                    buffer[position++] = (byte) c;
+                } else {
+                    writeAscii(escape);
+                }
+            } else if (c == '\u2028' || c == '\u2029') {
+                writeAscii(c == '\u2028' ? "\\u2028" : "\\u2029");
+            } else {
+                i = writeNonAscii(value, i, length);
+            }
+        }
+        writeByte('"');
+    }
+
+    // Caractère non ASCII (paire de surrogates comprise) ; renvoie l'index du dernier caractère consommé
+    private int writeNonAscii(CharSequence value, int i, int length) throws IOException {
+        char c = value.charAt(i);
+        if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+            writeCodePoint(Character.toCodePoint(c, value.charAt(i + 1)));
+            return i + 1;
+        }
+        writeCodePoint(c);
+        return i;
+    }
+
+    // Encodage UTF-8 d'un point de code ; un surrogate isolé devient '?', comme avec l'encodeur du JDK
+    private void writeCodePoint(int codePoint) throws IOException {
+        if (buffer.length - position < 4) drain();
+        if (codePoint < 0x80) {
+            buffer[position++] = (byte) codePoint;
+        } else if (codePoint < 0x800) {
+            buffer[position++] = (byte) (0xC0 | (codePoint >> 6));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            buffer[position++] = '?';
+        } else if (codePoint < 0x10000) {
+            buffer[position++] = (byte) (0xE0 | (codePoint >> 12));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+            buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+            buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+            buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    // Par tranches de la taille du tampon : un BigDecimal peut dépasser le tampon entier
+    private void writeAscii(String ascii) throws IOException {
+        int length = ascii.length();
+        if (buffer.length - position < length) drain();
+        for (int i = 0; i < length; i++) {
+            if (position == buffer.length) drain();
+            buffer[position++] = (byte) ascii.charAt(i);
+        }
+    }
+
+    // Writer UTF-8 sur ce tampon, pour les sérialiseurs qui écrivent des caractères (repli Gson)
+    public Writer asWriter() {
+        return new Writer() {
+            private char pendingHighSurrogate;
+
+            @Override
+            public void write(char[] chars, int offset, int length) throws IOException {
+                for (int i = offset; i < offset + length; i++) write(chars[i]);
+            }
+
+            @Override
+            public void write(int c) throws IOException {
+                char ch = (char) c;
+                if (pendingHighSurrogate != 0) {
+                    char high = pendingHighSurrogate;
+                    pendingHighSurrogate = 0;
+                    if (Character.isLowSurrogate(ch)) {
+                        writeCodePoint(Character.toCodePoint(high, ch));
+                        return;
+                    }
+                    writeCodePoint(high);
+                }
+                if (Character.isHighSurrogate(ch)) {
+                    pendingHighSurrogate = ch;
+                } else {
+                    writeCodePoint(ch);
+                }
+            }
+
+            @Override
+            public void write(String s, int offset, int length) throws IOException {
+                for (int i = offset; i < offset + length; i++) write(s.charAt(i));
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        };
+    }
+
+    private OutputStream stream() throws IOException {
+        if (stream == null) stream = sink.open();
+        return stream;
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            stream().write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    // Envoie le reste du tampon
+    public void flush() throws IOException {
+        drain();
+        stream().flush();
+    }
+
+    // Rend le tampon au pool ; l'instance ne doit plus être utilisée
+    public void release() {
+        byte[] released = buffer;
+        buffer = null;
+        if (released != null && released.length == BUFFER_SIZE && POOL.size() < MAX_POOLED) {
+            POOL.offer(released);
+        }
+    }
+}
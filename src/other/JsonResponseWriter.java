@@ -0,0 +1,73 @@
+package other;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import annotation.methods.Streaming;
+
+// Sérialisation JSON d'une route @RestApi : le codec du type de retour déclaré est généré une seule fois
+// (JsonCodecs) et écrit des octets UTF-8 dans un tampon recyclé, vidé directement vers la réponse.
+public class JsonResponseWriter {
+
+    // Partagé (thread-safe) : repli des codecs pour les types qu'ils ne prennent pas en charge
+    static final Gson GSON = new Gson();
+
+    // Erreurs de validation d'un corps @RequestBody : {"champ": "message"}
+    static final JsonResponseWriter VALIDATION_ERRORS = new JsonResponseWriter(
+            JsonCodecs.forType(new TypeToken<Map<String, String>>() {}.getType()));
+
+    final JsonCodec codec;
+
+    JsonResponseWriter(JsonCodec codec) {
+        this.codec = codec;
+    }
+
+    public static JsonResponseWriter forMethod(Method method) {
+        Type type = method.getGenericReturnType();
+        Class<?> returnType = method.getReturnType();
+        if (CompletionStage.class.isAssignableFrom(returnType)) {
+            // CompletableFuture<T> : le JSON porte sur la valeur T
+            type = typeArgument(type);
+            returnType = rawType(type);
+        }
+        if (JsonStreamWriter.isStreamed(returnType)) {
+            // Stream<T>, Iterator<T>, ResultPublisher<T> : codec des éléments T
+            return new JsonStreamWriter(JsonCodecs.forType(typeArgument(type)), method.getAnnotation(Streaming.class));
+        }
+        if (returnType == void.class || returnType == Object.class) return new JsonResponseWriter(JsonCodecs.forType(Object.class));
+        return new JsonResponseWriter(JsonCodecs.forType(type));
+    }
+
+    private static Type typeArgument(Type type) {
+        return type instanceof ParameterizedType ? ((ParameterizedType) type).getActualTypeArguments()[0] : Object.class;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        return Object.class;
+    }
+
+    public void write(Object result, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("application/json;charset=UTF-8");
+        JsonOutput out = new JsonOutput(response::getOutputStream);
+        try {
+            codec.write(result, out);
+            // Réponse entièrement tamponnée : longueur connue, pas d'encodage chunked
+            if (out.isBuffered()) response.setContentLength(out.size());
+            out.flush();
+        } finally {
+            out.release();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package other;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import annotation.methods.Streaming;
+
+// Résultat @RestApi en flux (Stream, Iterator, ResultPublisher) : chaque élément est encodé dès qu'il est produit,
+// en tableau JSON ou en NDJSON selon Accept ; la réponse part en chunked, envoyée tous les flushEvery éléments
+// et au plus flushInterval ms après l'écriture d'un élément, même si la source est bloquée sur le suivant
+// (vidage planifié). La source est fermée à la fin, sur erreur ou à la déconnexion du client.
+public class JsonStreamWriter extends JsonResponseWriter {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    // Un seul thread pour les vidages différés de toutes les réponses en flux
+    private static final ScheduledExecutorService FLUSHES = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "json-stream-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final int flushEvery;
+    private final long flushIntervalNanos;
+
+    JsonStreamWriter(JsonCodec elementCodec, Streaming streaming) {
+        super(elementCodec);
+        this.flushEvery = streaming == null ? 64 : streaming.flushEvery();
+        this.flushIntervalNanos = (streaming == null ? 1000 : streaming.flushInterval()) * 1_000_000L;
+    }
+
+    // Types de retour écrits élément par élément
+    static boolean isStreamed(Class<?> returnType) {
+        return Stream.class.isAssignableFrom(returnType) || Iterator.class.isAssignableFrom(returnType)
+                || ResultPublisher.class.isAssignableFrom(returnType);
+    }
+
+    @Override
+    public void write(Object result, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String accept = request.getHeader("Accept");
+        boolean ndjson = accept != null && (accept.contains(NDJSON) || accept.contains("application/ndjson"));
+        response.setContentType((ndjson ? NDJSON : "application/json") + ";charset=UTF-8");
+
+        Session session = new Session(new JsonOutput(response::getOutputStream), ndjson);
+        ScheduledFuture<?> idleFlush = flushIntervalNanos > 0
+                ? FLUSHES.scheduleWithFixedDelay(session::flushIfDue, flushIntervalNanos, flushIntervalNanos, TimeUnit.NANOSECONDS)
+                : null;
+        try {
+            session.begin();
+            if (result instanceof Stream) {
+                try (Stream<?> stream = (Stream<?>) result) {
+                    session.writeAll(stream.iterator());
+                }
+            } else if (result instanceof Iterator) {
+                try {
+                    session.writeAll((Iterator<?>) result);
+                } finally {
+                    closeQuietly(result);
+                }
+            } else if (result instanceof ResultPublisher) {
+                try {
+                    publish((ResultPublisher<?>) result, session);
+                } finally {
+                    closeQuietly(result);
+                }
+            }
+            session.end();
+        } catch (ClientGoneException e) {
+            // Déconnexion : source déjà fermée, rien à répondre
+            System.out.println("Streaming aborted, client disconnected: " + e.getCause().getMessage());
+        } finally {
+            if (idleFlush != null) idleFlush.cancel(false);
+            session.release();
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void publish(ResultPublisher publisher, Session session) throws IOException {
+        try {
+            publisher.publish(session::write);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Result publisher failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static void closeQuietly(Object source) {
+        if (!(source instanceof AutoCloseable)) return;
+        try {
+            ((AutoCloseable) source).close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Échec d'écriture vers le client, distingué des erreurs de la source
+    private static final class ClientGoneException extends IOException {
+        ClientGoneException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    // État d'une réponse : séparateurs, compteur et horloge d'envoi.
+    // Les écritures du thread de la requête et les vidages planifiés sont sérialisés sur la session ;
+    // le producteur attend l'élément suivant hors verrou, le vidage peut donc passer pendant ce temps.
+    private final class Session {
+        private final JsonOutput out;
+        private final boolean ndjson;
+        private int count;
+        private int sinceFlush;
+        private long lastFlush = System.nanoTime();
+        private boolean released;
+        // Échec d'un vidage planifié : signalé à la prochaine écriture
+        private IOException flushFailure;
+
+        Session(JsonOutput out, boolean ndjson) {
+            this.out = out;
+            this.ndjson = ndjson;
+        }
+
+        synchronized void begin() throws IOException {
+            if (!ndjson) output(() -> out.writeByte('['));
+        }
+
+        void writeAll(Iterator<?> elements) throws IOException {
+            while (elements.hasNext()) write(elements.next());
+        }
+
+        synchronized void write(Object element) throws IOException {
+            if (flushFailure != null) throw new ClientGoneException(flushFailure);
+            output(() -> {
+                if (!ndjson && count > 0) out.writeByte(',');
+                codec.write(element, out);
+                if (ndjson) out.writeByte('\n');
+            });
+            count++;
+            sinceFlush++;
+            if ((flushEvery > 0 && sinceFlush >= flushEvery)
+                    || (flushIntervalNanos > 0 && System.nanoTime() - lastFlush >= flushIntervalNanos)) {
+                flush();
+            }
+        }
+
+        // Vidage planifié : éléments en attente depuis flushInterval, producteur silencieux
+        synchronized void flushIfDue() {
+            if (released || flushFailure != null || sinceFlush == 0) return;
+            if (System.nanoTime() - lastFlush < flushIntervalNanos) return;
+            try {
+                flush();
+            } catch (IOException e) {
+                flushFailure = e;
+            }
+        }
+
+        synchronized void end() throws IOException {
+            output(() -> {
+                if (!ndjson) out.writeByte(']');
+                out.flush();
+            });
+        }
+
+        synchronized void release() {
+            released = true;
+            out.release();
+        }
+
+        private void flush() throws IOException {
+            output(out::flush);
+            sinceFlush = 0;
+            lastFlush = System.nanoTime();
+        }
+
+        private void output(Output action) throws IOException {
+            try {
+                action.run();
+            } catch (ClientGoneException e) {
+                throw e;
+            } catch (IOException e) {
+                throw new ClientGoneException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Output {
+        void run() throws IOException;
+    }
+}
@@ -1,5 +1,6 @@
 package other;
 
+import java.util.EnumMap;
 import java.util.Objects;
 import java.util.Set;
 import java.util.HashSet;
@@ -7,14 +8,22 @@ import java.util.HashSet;
 public class Mapping {
 
     private String className;
+    private Class<?> controllerClass;
     private Set<VerbAction> verbMethodes = new HashSet<>();
+    // Index de dispatch : un seul handler par verbe HTTP
+    private EnumMap<HttpVerb, VerbAction> verbIndex = new EnumMap<>(HttpVerb.class);
 
     public Mapping() {}
 
     public Mapping(String className, VerbAction verbMethod) {
         setClassName(className);
         this.verbMethodes = new HashSet<>();
-        this.verbMethodes.add(verbMethod);
+        addVerbMethod(verbMethod);
+    }
+
+    public Mapping(Class<?> controllerClass, VerbAction verbMethod) {
+        this(controllerClass.getName(), verbMethod);
+        this.controllerClass = controllerClass;
     }
 
     public String getClassName() {
@@ -25,16 +34,44 @@ public class Mapping {
         this.className = className;
     }
 
+    public Class<?> getControllerClass() {
+        return controllerClass;
+    }
+
     public Set<VerbAction> getVerbMethodes() {
         return verbMethodes;
     }
 
     public void setVerbMethodes(Set<VerbAction> verbMethodes) {
         this.verbMethodes = verbMethodes;
+        this.verbIndex.clear();
+        for (VerbAction verbMethod : verbMethodes) {
+            indexVerbMethod(verbMethod);
+        }
     }
 
     public void addVerbMethod(VerbAction verbMethod) {
         this.verbMethodes.add(verbMethod);
+        indexVerbMethod(verbMethod);
+    }
+
+    private void indexVerbMethod(VerbAction verbMethod) {
+        if (verbMethod.getHttpVerb() != null) {
+            this.verbIndex.put(verbMethod.getHttpVerb(), verbMethod);
+        }
+    }
+
+    // Le handler correspondant au verbe, ou null si le verbe n'est pas mappé
+    public VerbAction getVerbAction(HttpVerb verb) {
+        return verb == null ? null : verbIndex.get(verb);
+    }
+
+    public VerbAction getVerbAction(String httpMethod) {
+        return getVerbAction(HttpVerb.fromString(httpMethod));
+    }
+
+    public boolean hasVerb(HttpVerb verb) {
+        return verb != null && verbIndex.containsKey(verb);
     }
 
     @Override
@@ -0,0 +1,7 @@
+package other;
+
+// Appel typé d'une méthode de contrôleur, généré une fois par route au démarrage
+@FunctionalInterface
+public interface MethodInvoker {
+    Object invoke(Object target, Object[] args) throws Throwable;
+}
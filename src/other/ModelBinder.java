@@ -0,0 +1,537 @@
+package other;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import annotation.field.ModelField;
+import exception.HttpStatusException;
+
+// Plan de liaison d'une classe @ModelParam, construit une seule fois par classe :
+// constructeur et setters en MethodHandle, convertisseurs choisis d'avance.
+// Un plan lié à un préfixe (Binding) porte les clés complètes précalculées, ex: "order.client.name".
+// Objets imbriqués ("order.client.name") et listes indexées ("order.items[3].qty") sont supportés.
+// Les mêmes propriétés servent à lire un corps JSON en flux (@RequestBody, voir readJson).
+public class ModelBinder {
+
+    // Au-delà, un index de liste est refusé (la liste est dense jusqu'au plus grand index reçu)
+    public static final int MAX_LIST_INDEX = 255;
+
+    private static final Map<Class<?>, ModelBinder> PLANS = new ConcurrentHashMap<>();
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private enum Kind { INT, LONG, DOUBLE, BOOLEAN, VALUE, VALUES, FILE, MODEL, LIST }
+
+    private final Class<?> modelClass;
+    private final MethodHandle constructor;
+    private final Property[] properties;
+    // Nom JSON / de formulaire -> propriété
+    private final Map<String, Property> propertiesByName;
+    // Au moins un champ objet imbriqué ou liste
+    private final boolean hasStructure;
+
+    public static ModelBinder forClass(Class<?> modelClass) {
+        ModelBinder binder = PLANS.get(modelClass);
+        if (binder == null) {
+            // Pas de computeIfAbsent : les classes imbriquées sont résolues à la demande
+            binder = new ModelBinder(modelClass);
+            ModelBinder existing = PLANS.putIfAbsent(modelClass, binder);
+            if (existing != null) binder = existing;
+        }
+        return binder;
+    }
+
+    private ModelBinder(Class<?> modelClass) {
+        this.modelClass = modelClass;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(modelClass, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(modelClass, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+
+            List<Property> properties = new ArrayList<>();
+            for (Field field : modelClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic()) continue;
+                properties.add(new Property(field, lookup.unreflectSetter(field)));
+            }
+            this.properties = properties.toArray(new Property[0]);
+            this.propertiesByName = new HashMap<>();
+            for (Property property : this.properties) propertiesByName.put(property.name, property);
+            this.hasStructure = properties.stream().anyMatch(property -> property.kind == Kind.MODEL || property.kind == Kind.LIST);
+
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot build model binder for " + modelClass.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    public Class<?> getModelClass() {
+        return modelClass;
+    }
+
+    // Plan lié au préfixe de la requête (nom du @ModelParam, ou chemin d'un objet imbriqué)
+    public Binding binding(String prefix) {
+        return new Binding(this, prefix);
+    }
+
+    // Objet JSON lu au fil du flux : les clés inconnues et les valeurs null sont ignorées
+    public Object readJson(JsonReader reader) throws IOException, ServletException {
+        Object instance = newInstance();
+        try {
+            reader.beginObject();
+        } catch (IllegalStateException e) {
+            throw new JsonSyntaxException("Expected a JSON object for " + modelClass.getSimpleName() + ": " + e.getMessage(), e);
+        }
+        while (reader.hasNext()) {
+            Property property = propertiesByName.get(reader.nextName());
+            if (property == null || property.kind == Kind.FILE || reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+            property.readJson(instance, reader);
+        }
+        reader.endObject();
+        return instance;
+    }
+
+    // Jeton JSON inattendu ou valeur non convertible : faute du client (400), pas du serveur
+    private static JsonSyntaxException invalidJson(String name, RuntimeException e) {
+        return new JsonSyntaxException("Invalid value for " + name + ": " + e.getMessage(), e);
+    }
+
+    @FunctionalInterface
+    private interface JsonRead<T> {
+        T read() throws IOException;
+    }
+
+    private Object newInstance() throws ServletException {
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new ServletException("Unable to instantiate model: " + modelClass.getName(), e);
+        }
+    }
+
+    // Un champ liable du modèle
+    private static final class Property {
+        final String name;
+        // Nom Java du champ (clé des erreurs de validation)
+        final String fieldName;
+        final Class<?> type;
+        // Typé (Object, int)void etc. pour les primitifs INT/LONG/DOUBLE/BOOLEAN, (Object, Object)void sinon
+        final MethodHandle setter;
+        final Kind kind;
+        final TypeConverter<?> converter;
+        // Tableaux et List<T> de valeurs simples envoyés en multi-valué (name=1&name=2)
+        final TypeConverters.ValuesConverter valuesConverter;
+        // Listes indexées : type des éléments et nature (VALUE ou MODEL)
+        final Class<?> elementType;
+        final Kind elementKind;
+        final TypeConverter<?> elementConverter;
+
+        Property(Field field, MethodHandle setter) {
+            ModelField modelField = field.getAnnotation(ModelField.class);
+            this.name = (modelField != null && !modelField.name().isEmpty()) ? modelField.name() : field.getName();
+            this.fieldName = field.getName();
+            this.type = field.getType();
+            this.converter = TypeConverters.forClass(type);
+            this.valuesConverter = TypeConverters.forValues(type, field.getGenericType());
+
+            Class<?> element = TypeConverters.collectionElementType(type, field.getGenericType());
+            if (type.equals(FileUpload.class)) {
+                this.kind = Kind.FILE;
+            } else if (type == int.class) {
+                this.kind = Kind.INT;
+            } else if (type == long.class) {
+                this.kind = Kind.LONG;
+            } else if (type == double.class) {
+                this.kind = Kind.DOUBLE;
+            } else if (type == boolean.class) {
+                this.kind = Kind.BOOLEAN;
+            } else if (converter != null) {
+                this.kind = Kind.VALUE;
+            } else if (element != null && (TypeConverters.supports(element) || isModel(element))) {
+                this.kind = Kind.LIST;
+            } else if (type.isArray() && valuesConverter != null) {
+                this.kind = Kind.VALUES;
+            } else if (isModel(type)) {
+                this.kind = Kind.MODEL;
+            } else {
+                // Type non supporté : erreur seulement si une valeur est envoyée (comportement historique)
+                this.kind = Kind.VALUE;
+            }
+
+            this.setter = kind == Kind.INT || kind == Kind.LONG || kind == Kind.DOUBLE || kind == Kind.BOOLEAN
+                    ? setter.asType(MethodType.methodType(void.class, Object.class, type))
+                    : setter.asType(SETTER_TYPE);
+            this.elementType = kind == Kind.LIST ? element : null;
+            this.elementConverter = kind == Kind.LIST ? TypeConverters.forClass(element) : null;
+            this.elementKind = kind != Kind.LIST ? null : elementConverter != null ? Kind.VALUE : Kind.MODEL;
+        }
+
+        void set(Object instance, Object value) throws ServletException {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw new ServletException("Unable to set field value: " + name, e);
+            }
+        }
+
+        // Champs primitifs : analyse et affectation sans boxing
+        void setPrimitive(Object instance, String raw) throws ServletException {
+            try {
+                switch (kind) {
+                    case INT:
+                        setter.invokeExact(instance, raw.isEmpty() ? 0 : TypeConverters.parseInt(raw));
+                        break;
+                    case LONG:
+                        setter.invokeExact(instance, raw.isEmpty() ? 0L : TypeConverters.parseLong(raw));
+                        break;
+                    case DOUBLE:
+                        setter.invokeExact(instance, raw.isEmpty() ? 0.0 : TypeConverters.parseDouble(raw));
+                        break;
+                    default:
+                        setter.invokeExact(instance, TypeConverters.parseBoolean(raw));
+                        break;
+                }
+            } catch (NumberFormatException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ServletException("Unable to set field value: " + name, e);
+            }
+        }
+
+        void readJson(Object instance, JsonReader reader) throws IOException, ServletException {
+            Object value;
+            switch (kind) {
+                case INT:
+                case LONG:
+                case DOUBLE:
+                case BOOLEAN:
+                    readPrimitive(instance, reader);
+                    return;
+                case MODEL:
+                    value = forClass(type).readJson(reader);
+                    break;
+                case VALUE:
+                    if (converter == null) throw new ServletException("Unsupported parameter type: " + type.getName());
+                    try {
+                        value = TypeConverters.convert(converter, type, jsonScalar(reader));
+                    } catch (IllegalStateException | IllegalArgumentException | DateTimeException e) {
+                        throw invalidJson(name, e);
+                    }
+                    break;
+                case VALUES:
+                    try {
+                        List<String> raw = new ArrayList<>();
+                        reader.beginArray();
+                        while (reader.hasNext()) raw.add(jsonScalar(reader));
+                        reader.endArray();
+                        value = valuesConverter.convert(raw.toArray(new String[0]));
+                    } catch (IllegalStateException | IllegalArgumentException | DateTimeException e) {
+                        throw invalidJson(name, e);
+                    }
+                    break;
+                default:
+                    value = readJsonList(reader);
+                    break;
+            }
+            set(instance, value);
+        }
+
+        // Primitifs lus directement par le JsonReader, sans String intermédiaire ;
+        // lecture (erreur du client) et affectation (erreur serveur) sont séparées
+        private void readPrimitive(Object instance, JsonReader reader) throws IOException, ServletException {
+            try {
+                switch (kind) {
+                    case INT: {
+                        int value = readJsonPrimitive(reader, () -> reader.nextInt());
+                        setter.invokeExact(instance, value);
+                        break;
+                    }
+                    case LONG: {
+                        long value = readJsonPrimitive(reader, () -> reader.nextLong());
+                        setter.invokeExact(instance, value);
+                        break;
+                    }
+                    case DOUBLE: {
+                        double value = readJsonPrimitive(reader, () -> reader.nextDouble());
+                        setter.invokeExact(instance, value);
+                        break;
+                    }
+                    default: {
+                        boolean value = readJsonPrimitive(reader, () -> reader.peek() == JsonToken.BOOLEAN
+                                ? reader.nextBoolean() : TypeConverters.parseBoolean(reader.nextString()));
+                        setter.invokeExact(instance, value);
+                        break;
+                    }
+                }
+            } catch (IOException | JsonSyntaxException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ServletException("Unable to set field value: " + name, e);
+            }
+        }
+
+        private <T> T readJsonPrimitive(JsonReader reader, JsonRead<T> read) throws IOException {
+            try {
+                return read.read();
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                throw invalidJson(name, e);
+            }
+        }
+
+        private List<Object> readJsonList(JsonReader reader) throws IOException, ServletException {
+            List<Object> list = new ArrayList<>();
+            ModelBinder elementBinder = elementKind == Kind.MODEL ? forClass(elementType) : null;
+            try {
+                reader.beginArray();
+            } catch (IllegalStateException e) {
+                throw invalidJson(name, e);
+            }
+            while (reader.hasNext()) {
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    list.add(null);
+                } else if (elementBinder != null) {
+                    list.add(elementBinder.readJson(reader));
+                } else {
+                    try {
+                        list.add(TypeConverters.convert(elementConverter, elementType, jsonScalar(reader)));
+                    } catch (IllegalStateException | IllegalArgumentException | DateTimeException e) {
+                        throw invalidJson(name, e);
+                    }
+                }
+            }
+            reader.endArray();
+            return list;
+        }
+
+        // Chaîne, nombre ou booléen JSON, converti ensuite comme une valeur de formulaire
+        private static String jsonScalar(JsonReader reader) throws IOException {
+            return reader.peek() == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+        }
+
+        Object convert(String value) {
+            if (converter == null) throw new IllegalArgumentException("Unsupported parameter type: " + type.getName());
+            return TypeConverters.convert(converter, type, value);
+        }
+
+        // Objet imbriqué : classe applicative instanciable sans argument
+        private static boolean isModel(Class<?> type) {
+            if (type.isPrimitive() || type.isArray() || type.isEnum() || type.isInterface()
+                    || Modifier.isAbstract(type.getModifiers()) || type.getName().startsWith("java.")) {
+                return false;
+            }
+            try {
+                type.getDeclaredConstructor();
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    }
+
+    // Plan + préfixe : clés de requête calculées une seule fois
+    public static final class Binding {
+        private final ModelBinder binder;
+        private final String prefix;
+        private final String[] keys;
+        // Plans des objets imbriqués, créés au premier usage (supporte les types récursifs)
+        private final Binding[] nested;
+
+        private Binding(ModelBinder binder, String prefix) {
+            this.binder = binder;
+            this.prefix = prefix;
+            Property[] properties = binder.properties;
+            this.keys = new String[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                keys[i] = prefix + "." + properties[i].name;
+            }
+            this.nested = new Binding[properties.length];
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        // Valeurs simples telles que saisies, par nom de champ (réaffichage d'un formulaire invalide)
+        public Map<String, String> submittedValues(HttpServletRequest request) {
+            Property[] properties = binder.properties;
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < properties.length; i++) {
+                Kind kind = properties[i].kind;
+                if (kind == Kind.FILE || kind == Kind.MODEL || kind == Kind.LIST) continue;
+                String[] raw = request.getParameterValues(keys[i]);
+                if (raw != null && raw.length > 0) {
+                    values.put(properties[i].fieldName, raw.length == 1 ? raw[0] : String.join(", ", raw));
+                }
+            }
+            return values;
+        }
+
+        // Objet racine : toujours instancié, même sans aucun champ reçu
+        public Object bind(HttpServletRequest request) throws ServletException {
+            // Les préfixes présents ne sont indexés que si le modèle a des objets imbriqués ou des listes
+            Presence presence = binder.hasStructure ? new Presence(request) : null;
+            return populate(binder.newInstance(), request, presence);
+        }
+
+        // Objet imbriqué : instancié seulement si au moins un de ses champs est présent
+        private Object populate(Object instance, HttpServletRequest request, Presence presence) throws ServletException {
+            Property[] properties = binder.properties;
+            for (int i = 0; i < properties.length; i++) {
+                Property property = properties[i];
+                Object value;
+                switch (property.kind) {
+                    case INT:
+                    case LONG:
+                    case DOUBLE:
+                    case BOOLEAN:
+                        String primitive = request.getParameter(keys[i]);
+                        if (primitive == null) continue;
+                        if (instance == null) instance = binder.newInstance();
+                        property.setPrimitive(instance, primitive);
+                        continue;
+                    case VALUE:
+                        String raw = request.getParameter(keys[i]);
+                        if (raw == null) continue;
+                        value = property.convert(raw);
+                        break;
+                    case VALUES:
+                        String[] values = request.getParameterValues(keys[i]);
+                        if (values == null) continue;
+                        value = property.valuesConverter.convert(values);
+                        break;
+                    case FILE:
+                        value = bindFile(request, keys[i]);
+                        if (value == null) continue;
+                        break;
+                    case MODEL:
+                        if (!presence.hasObject(keys[i])) continue;
+                        value = nested(i).populate(null, request, presence);
+                        break;
+                    default:
+                        int maxIndex = presence.maxIndex(keys[i]);
+                        if (maxIndex >= 0) {
+                            value = bindList(property, keys[i], maxIndex, request, presence);
+                            break;
+                        }
+                        // Liste de valeurs simples envoyée en multi-valué : key=1&key=2
+                        String[] listValues = property.valuesConverter == null ? null : request.getParameterValues(keys[i]);
+                        if (listValues == null) continue;
+                        value = property.valuesConverter.convert(listValues);
+                        break;
+                }
+                if (instance == null) instance = binder.newInstance();
+                property.set(instance, value);
+            }
+            return instance;
+        }
+
+        private Binding nested(int index) {
+            Binding binding = nested[index];
+            if (binding == null) {
+                binding = forClass(binder.properties[index].type).binding(keys[index]);
+                nested[index] = binding;
+            }
+            return binding;
+        }
+
+        private static FileUpload bindFile(HttpServletRequest request, String key) throws ServletException {
+            try {
+                return Utils.resolveFileUpload(request, key, true);
+            } catch (IOException e) {
+                throw new ServletException("Erreur lors du traitement du fichier : " + e.getMessage(), e);
+            }
+        }
+
+        // "key[i]" ou "key[i].champ" : liste dense jusqu'au plus grand index reçu
+        private static List<Object> bindList(Property property, String key, int maxIndex,
+                                             HttpServletRequest request, Presence presence)
+            throws ServletException
+        {
+            List<Object> list = new ArrayList<>(maxIndex + 1);
+            ModelBinder elementBinder = property.elementKind == Kind.MODEL ? forClass(property.elementType) : null;
+            for (int i = 0; i <= maxIndex; i++) {
+                String elementKey = key + "[" + i + "]";
+                if (elementBinder != null) {
+                    list.add(presence.hasObject(elementKey) ? elementBinder.binding(elementKey).populate(null, request, presence) : null);
+                } else {
+                    String raw = request.getParameter(elementKey);
+                    list.add(raw == null ? null : TypeConverters.convert(property.elementConverter, property.elementType, raw));
+                }
+            }
+            return list;
+        }
+    }
+
+    // Préfixes présents dans la requête, indexés en une passe sur les noms de paramètres :
+    // "order.items[3].qty" -> objets "order", "order.items[3]" ; liste "order.items" (index max 3)
+    private static final class Presence {
+        private final Set<String> objects = new HashSet<>();
+        private final Map<String, Integer> lists = new HashMap<>();
+
+        Presence(HttpServletRequest request) throws ServletException {
+            Enumeration<String> names = request.getParameterNames();
+            while (names.hasMoreElements()) {
+                String name = names.nextElement();
+                for (int i = 0; i < name.length(); i++) {
+                    char c = name.charAt(i);
+                    if (c == '.') {
+                        objects.add(name.substring(0, i));
+                    } else if (c == '[') {
+                        int index = parseIndex(name, i + 1);
+                        if (index < 0) continue;
+                        if (index > MAX_LIST_INDEX) {
+                            // Nom de champ envoyé par le client : requête invalide, pas une erreur serveur
+                            throw new HttpStatusException(HttpServletResponse.SC_BAD_REQUEST, "List index " + index + " exceeds " + MAX_LIST_INDEX + " for " + name);
+                        }
+                        lists.merge(name.substring(0, i), index, Math::max);
+                    }
+                }
+            }
+        }
+
+        boolean hasObject(String prefix) {
+            return objects.contains(prefix);
+        }
+
+        int maxIndex(String key) {
+            Integer index = lists.get(key);
+            return index == null ? -1 : index;
+        }
+
+        // Index entre crochets commençant à start, ou -1 si le nom n'est pas de la forme "[n]"
+        private static int parseIndex(String name, int start) {
+            int index = 0;
+            int i = start;
+            while (i < name.length() && Character.isDigit(name.charAt(i))) {
+                index = index * 10 + (name.charAt(i) - '0');
+                if (index > MAX_LIST_INDEX) return index;
+                i++;
+            }
+            if (i == start || i >= name.length() || name.charAt(i) != ']') return -1;
+            return index;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package other;
+
+import java.io.IOException;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+
+import exception.ValidationException;
+
+// Produit la valeur d'un paramètre de méthode de contrôleur ; construit une fois par route (voir ParameterBinders)
+@FunctionalInterface
+public interface ParameterBinder {
+    Object bind(HttpServletRequest request) throws ServletException, IOException, ValidationException;
+}
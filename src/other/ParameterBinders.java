@@ -0,0 +1,237 @@
+package other;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import annotation.ModelParam;
+import annotation.Param;
+import annotation.RequestBody;
+import annotation.ValidateForm;
+import annotation.methods.RestApi;
+import exception.HttpStatusException;
+import exception.ValidationException;
+
+// Choisit au démarrage le binder de chaque paramètre : annotations, type et conversion ne sont lus qu'une fois.
+// Une signature non supportée fait échouer l'enregistrement de la route.
+public class ParameterBinders {
+
+    private static final ParameterBinder[] NO_BINDERS = new ParameterBinder[0];
+
+    public static ParameterBinder[] forMethod(Method method) {
+        Parameter[] parameters = method.getParameters();
+        if (parameters.length == 0) return NO_BINDERS;
+
+        ParameterBinder[] binders = new ParameterBinder[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            binders[i] = forParameter(method, parameters[i]);
+        }
+        return binders;
+    }
+
+    private static ParameterBinder forParameter(Method method, Parameter parameter) {
+        Class<?> type = parameter.getType();
+        Param param = parameter.getAnnotation(Param.class);
+        ModelParam modelParam = parameter.getAnnotation(ModelParam.class);
+        RequestBody requestBody = parameter.getAnnotation(RequestBody.class);
+
+        if (type.equals(FileUpload.class)) {
+            if (param == null) throw unsupported(method, parameter, "FileUpload parameters need @Param");
+            return fileBinder(paramName(parameter, param));
+        }
+        if (type.equals(StoredContent.class)) {
+            if (param == null) throw unsupported(method, parameter, "StoredContent parameters need @Param");
+            return storedContentBinder(paramName(parameter, param));
+        }
+        if (param != null) {
+            return paramBinder(method, parameter, paramName(parameter, param));
+        }
+        if (modelParam != null) {
+            if (modelParam.redirectOnError() == null || modelParam.redirectOnError().isEmpty()) {
+                throw unsupported(method, parameter, "redirectOnError must be specified in @ModelParam annotation");
+            }
+            String attributeName = modelParam.name().isEmpty() ? parameter.getName() : modelParam.name();
+            return new ModelParamBinder(ModelBinder.forClass(type).binding(attributeName), modelParam);
+        }
+        if (requestBody != null) {
+            if (requestBody.maxSize() <= 0) throw unsupported(method, parameter, "@RequestBody maxSize must be positive");
+            // Les erreurs (400, 413) sont écrites en JSON : réservé aux routes @RestApi
+            if (!method.isAnnotationPresent(RestApi.class)) throw unsupported(method, parameter, "@RequestBody requires a @RestApi method");
+            return new RequestBodyBinder(ModelBinder.forClass(type), requestBody);
+        }
+        if (type.equals(MySession.class)) {
+            return request -> new MySession(request.getSession());
+        }
+        throw unsupported(method, parameter, "no @Param, @ModelParam, @RequestBody or supported type");
+    }
+
+    private static String paramName(Parameter parameter, Param param) {
+        return param.name().isEmpty() ? parameter.getName() : param.name();
+    }
+
+    private static ParameterBinder paramBinder(Method method, Parameter parameter, String name) {
+        Class<?> type = parameter.getType();
+
+        // Tableaux et List<T> : toutes les valeurs du paramètre (name=1&name=2)
+        TypeConverters.ValuesConverter valuesConverter = TypeConverters.forValues(type, parameter.getParameterizedType());
+        if (valuesConverter != null) {
+            return request -> valuesConverter.convert(Utils.getParameterValuesOrPathVariable(request, name));
+        }
+
+        TypeConverter<?> converter = TypeConverters.forClass(type);
+        if (converter == null) throw unsupported(method, parameter, "unsupported @Param type " + type.getName());
+        Object defaultValue = TypeConverters.defaultValue(type);
+
+        return request -> {
+            String value = Utils.getParameterOrPathVariable(request, name);
+            return value == null || value.isEmpty() ? defaultValue : converter.convert(value);
+        };
+    }
+
+    private static ParameterBinder fileBinder(String name) {
+        return request -> Utils.resolveFileUpload(request, name, false);
+    }
+
+    // Fichier rangé dans le ContentStore avant l'appel : le contrôleur reçoit directement la référence
+    private static ParameterBinder storedContentBinder(String name) {
+        return request -> {
+            FileUpload upload = Utils.resolveFileUpload(request, name, true);
+            return upload == null ? null : upload.store();
+        };
+    }
+
+    // @ModelParam : liaison, puis validation ; en cas d'échec, redirection et valeurs saisies sont déjà connues
+    private static final class ModelParamBinder implements ParameterBinder {
+        private final ModelBinder.Binding binding;
+        // Sans état modifiable : partagé par toutes les requêtes
+        private final ValidateForm validator;
+        // Chemin du RequestDispatcher, résolu au démarrage
+        private final String redirectPath;
+
+        ModelParamBinder(ModelBinder.Binding binding, ModelParam modelParam) {
+            this.binding = binding;
+            this.validator = new ValidateForm(modelParam.failFast(), modelParam.asyncTimeout());
+            this.redirectPath = "/" + modelParam.redirectOnError();
+        }
+
+        @Override
+        public Object bind(HttpServletRequest request) throws ServletException, ValidationException {
+            Object instance = binding.bind(request);
+            try {
+                validator.validateObject(instance);
+                return instance;
+            } catch (ValidationException ve) {
+                // Valeurs telles que saisies, relues avec les clés précalculées du binder
+                ve.setFieldValues(() -> binding.submittedValues(request));
+                ve.setRedirectUrl(redirectPath);
+                throw ve;
+            }
+        }
+    }
+
+    // @RequestBody : corps JSON lu en flux par le JsonReader (jamais copié en String), borné à maxSize, puis validé.
+    // En cas d'échec de validation, l'exception n'a pas de redirection : réponse 400 avec les erreurs en JSON.
+    private static final class RequestBodyBinder implements ParameterBinder {
+        private final ModelBinder binder;
+        private final ValidateForm validator;
+        private final long maxSize;
+
+        RequestBodyBinder(ModelBinder binder, RequestBody requestBody) {
+            this.binder = binder;
+            this.validator = new ValidateForm(requestBody.failFast(), requestBody.asyncTimeout());
+            this.maxSize = requestBody.maxSize();
+        }
+
+        @Override
+        public Object bind(HttpServletRequest request) throws ServletException, IOException, ValidationException {
+            String contentType = request.getContentType();
+            if (contentType != null && !contentType.toLowerCase().contains("json")) {
+                throw new HttpStatusException(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Expected a JSON request body");
+            }
+            // Taille annoncée : refus avant toute lecture
+            if (request.getContentLengthLong() > maxSize) throw tooLarge();
+
+            Object instance;
+            try (JsonReader reader = new JsonReader(new InputStreamReader(new LimitedInputStream(request.getInputStream(), maxSize), charsetOf(request)))) {
+                if (reader.peek() == JsonToken.NULL) {
+                    throw new HttpStatusException(HttpServletResponse.SC_BAD_REQUEST, "Request body is required");
+                }
+                instance = binder.readJson(reader);
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new HttpStatusException(HttpServletResponse.SC_BAD_REQUEST, "Unexpected content after JSON body");
+                }
+            } catch (BodyTooLargeException e) {
+                throw tooLarge();
+            } catch (HttpStatusException e) {
+                throw e;
+            } catch (IOException | JsonParseException e) {
+                // JSON mal formé ou tronqué (MalformedJsonException, EOFException), type de valeur inattendu
+                // ou conversion impossible (JsonSyntaxException levée par ModelBinder) ; les autres erreurs restent des 500
+                // (un client déconnecté arrive aussi ici : la réponse 400 ne sera simplement pas lue)
+                throw new HttpStatusException(HttpServletResponse.SC_BAD_REQUEST, "Invalid JSON body: " + e.getMessage(), e);
+            }
+
+            validator.validateObject(instance);
+            return instance;
+        }
+
+        // JSON : UTF-8 sauf charset explicite
+        private static Charset charsetOf(HttpServletRequest request) {
+            String encoding = request.getCharacterEncoding();
+            return encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        }
+
+        private HttpStatusException tooLarge() {
+            return new HttpStatusException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "Request body exceeds " + maxSize + " bytes");
+        }
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        BodyTooLargeException() {
+            super("Request body too large");
+        }
+    }
+
+    // Corps sans Content-Length (chunked) : la limite est vérifiée au fil de la lecture
+    private static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && --remaining < 0) throw new BodyTooLargeException();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0 && (remaining -= count) < 0) throw new BodyTooLargeException();
+            return count;
+        }
+    }
+
+    private static IllegalArgumentException unsupported(Method method, Parameter parameter, String reason) {
+        return new IllegalArgumentException("Cannot bind parameter '" + parameter.getName() + "' of "
+                + method.getDeclaringClass().getName() + "." + method.getName() + ": " + reason);
+    }
+}
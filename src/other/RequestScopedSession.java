@@ -0,0 +1,46 @@
+package other;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+// MySession injecté une seule fois dans les contrôleurs SINGLETON / POOLED :
+// chaque appel s'adresse à la session de la requête en cours sur le thread
+public class RequestScopedSession extends MySession {
+
+    private static final ThreadLocal<HttpServletRequest> CURRENT_REQUEST = new ThreadLocal<>();
+
+    public static void bind(HttpServletRequest request) {
+        CURRENT_REQUEST.set(request);
+    }
+
+    public static void unbind() {
+        CURRENT_REQUEST.remove();
+    }
+
+    private static HttpSession currentSession() {
+        HttpServletRequest request = CURRENT_REQUEST.get();
+        if (request == null) {
+            throw new IllegalStateException("MySession used outside of a request");
+        }
+        return request.getSession();
+    }
+
+    @Override
+    public Object get(String key) {
+        Object value = currentSession().getAttribute(key);
+        System.out.println("Session GET - Key: " + key + ", Value: " + value);
+        return value;
+    }
+
+    @Override
+    public void add(String key, Object object) {
+        System.out.println("Session ADD - Key: " + key + ", Value: " + object);
+        currentSession().setAttribute(key, object);
+    }
+
+    @Override
+    public void delete(String key) {
+        System.out.println("Session DELETE - Key: " + key);
+        currentSession().removeAttribute(key);
+    }
+}
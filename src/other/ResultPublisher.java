@@ -0,0 +1,17 @@
+package other;
+
+import java.io.IOException;
+
+// Résultat @RestApi produit par rappels : publish() émet les éléments un à un, écrits au fil de l'eau.
+// Si l'implémentation est AutoCloseable, close() est appelé à la fin, client déconnecté compris.
+@FunctionalInterface
+public interface ResultPublisher<T> {
+
+    void publish(Emitter<T> emitter) throws Exception;
+
+    @FunctionalInterface
+    interface Emitter<T> {
+        // IOException : client déconnecté, publish() doit s'arrêter
+        void emit(T element) throws IOException;
+    }
+}
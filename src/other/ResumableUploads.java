@@ -0,0 +1,356 @@
+package other;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import auth.AuthenticationManager;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Envois reprenables (init-param resumable_uploads = préfixe, ex: "/uploads") :
+//   POST   /uploads?fileName=a.zip&size=123   -> 201 {"id":...}           création
+//   PUT    /uploads/{id}?offset=N  (octets)   -> {"offset":...}           bloc écrit à sa position
+//   GET    /uploads/{id}                      -> {"offset":..., ...}      reprise : premier octet manquant
+//   POST   /uploads/{id}/complete             -> {"complete":true}        validation atomique
+// Le formulaire applicatif envoie ensuite l'id à la place du fichier : le contrôleur reçoit un FileUpload ordinaire.
+// Les blocs peuvent arriver dans le désordre ou en parallèle ; les envois inactifs depuis ttl sont supprimés.
+// Ces URL sont traitées avant le routage, donc hors AuthenticationInterceptor : l'accès est vérifié ici
+// (utilisateur connecté par défaut, rôle requis ou "anonymous" par init-param resumable_role).
+// Chaque envoi appartient à l'utilisateur connecté qui l'a créé : un autre utilisateur reçoit 404, même avec l'id.
+// Un envoi terminé ne se réclame qu'une fois ; son fichier est supprimé peu après.
+public class ResumableUploads {
+
+    public static final long DEFAULT_TTL_MILLIS = 24L * 60 * 60 * 1000;
+    public static final long DEFAULT_MAX_SIZE = 512L * 1024 * 1024;
+    // Accès sans authentification (init-param resumable_role=anonymous)
+    public static final String ANONYMOUS = "anonymous";
+    // Délai laissé au contrôleur pour lire ou déplacer un fichier réclamé avant sa suppression
+    private static final long CLAIMED_TTL_MILLIS = 15L * 60 * 1000;
+    private static final long SWEEP_INTERVAL_MILLIS = 60L * 1000;
+    private static final int CHUNK_BUFFER_SIZE = 64 * 1024;
+
+    private static final JsonResponseWriter STATUS_WRITER = new JsonResponseWriter(JsonCodecs.forType(Status.class));
+
+    private final String prefix;
+    private final Path directory;
+    private final long maxSize;
+    private final long ttlMillis;
+    // "" : tout utilisateur connecté ; ANONYMOUS : aucune vérification
+    private final String requiredRole;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    public ResumableUploads(String prefix, Path directory, long maxSize, long ttlMillis, String requiredRole) {
+        if (maxSize <= 0) throw new IllegalArgumentException("Resumable upload max size must be positive: " + maxSize);
+        this.prefix = prefix.endsWith("/") ? prefix.substring(0, prefix.length() - 1) : prefix;
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.requiredRole = requiredRole == null ? "" : requiredRole;
+    }
+
+    public boolean isAnonymous() {
+        return ANONYMOUS.equals(requiredRole);
+    }
+
+    public boolean handles(String relativeURI) {
+        return relativeURI.equals(prefix) || relativeURI.startsWith(prefix + "/");
+    }
+
+    public void handle(HttpServletRequest request, HttpServletResponse response, String relativeURI) throws IOException {
+        String rest = relativeURI.substring(prefix.length());
+        if (rest.startsWith("/")) rest = rest.substring(1);
+        String method = request.getMethod();
+        sweepIfDue();
+
+        try {
+            checkAccess(request);
+            if (rest.isEmpty()) {
+                if (!method.equals("POST")) throw new UploadException(HttpServletResponse.SC_METHOD_NOT_ALLOWED, "Use POST to create an upload");
+                initiate(request, response);
+                return;
+            }
+            boolean complete = rest.endsWith("/complete");
+            String id = complete ? rest.substring(0, rest.length() - "/complete".length()) : rest;
+            Upload upload = uploads.get(id);
+            if (upload == null || !isOwner(upload, request)) throw new UploadException(HttpServletResponse.SC_NOT_FOUND, "Unknown upload " + id);
+
+            if (complete && method.equals("POST")) {
+                complete(upload);
+            } else if (!complete && method.equals("PUT")) {
+                writeChunk(upload, request);
+            } else if (!complete && method.equals("GET")) {
+                // Simple lecture de l'état
+            } else {
+                throw new UploadException(HttpServletResponse.SC_METHOD_NOT_ALLOWED, method + " not allowed here");
+            }
+            writeStatus(upload, request, response);
+        } catch (UploadException e) {
+            response.sendError(e.status, e.getMessage());
+        }
+    }
+
+    // FileUpload d'un envoi terminé, ou null si l'id est inconnu, appartient à un autre utilisateur, n'est pas encore
+    // validé ou déjà réclamé. Usage unique : le fichier reste CLAIMED_TTL_MILLIS au même endroit, le temps que le
+    // contrôleur le lise ou le déplace
+    public FileUpload claim(String id, HttpServletRequest request) throws IOException {
+        sweepIfDue();
+        Upload upload = uploads.get(id);
+        if (upload == null || !isOwner(upload, request)) return null;
+        synchronized (upload) {
+            if (!upload.complete || upload.claimed) return null;
+            FileUpload fileUpload = new FileUpload(upload.fileName, Utils.getUploadDirectory(), upload.file);
+            fileUpload.setContentType(upload.contentType);
+            upload.claimed = true;
+            upload.touch();
+            return fileUpload;
+        }
+    }
+
+    // 401 sans session authentifiée, 403 sans le rôle demandé
+    private void checkAccess(HttpServletRequest request) throws UploadException {
+        if (isAnonymous()) return;
+        if (!AuthenticationManager.isAuthenticated(request)) {
+            throw new UploadException(HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+        }
+        if (!AuthenticationManager.hasRole(request, requiredRole)) {
+            throw new UploadException(HttpServletResponse.SC_FORBIDDEN, "Role " + requiredRole + " required");
+        }
+    }
+
+    // Propriétaire : l'utilisateur de session (comparé par equals) ; aucun en mode anonyme, l'id suffit
+    private Object ownerOf(HttpServletRequest request) {
+        return isAnonymous() ? null : AuthenticationManager.getUser(request);
+    }
+
+    private boolean isOwner(Upload upload, HttpServletRequest request) {
+        return isAnonymous() || (upload.owner != null && upload.owner.equals(ownerOf(request)));
+    }
+
+    private void initiate(HttpServletRequest request, HttpServletResponse response) throws IOException, UploadException {
+        String fileName = request.getParameter("fileName");
+        String sizeParameter = request.getParameter("size");
+        if (fileName == null || fileName.isEmpty() || sizeParameter == null) {
+            throw new UploadException(HttpServletResponse.SC_BAD_REQUEST, "fileName and size are required");
+        }
+        long size = parseLong(sizeParameter, "size");
+        if (size < 0 || size > maxSize) throw new UploadException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Upload size exceeds " + maxSize + " bytes");
+
+        Files.createDirectories(directory);
+        String id = UUID.randomUUID().toString();
+        Path file = directory.resolve(id + ".part");
+        // Fichier de la taille annoncée : les blocs sont écrits à leur position, dans n'importe quel ordre
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (size > 0) channel.write(ByteBuffer.allocate(1), size - 1);
+        }
+        // Nom sans chemin, comme pour une Part multipart
+        String baseName = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1);
+        Upload upload = new Upload(id, baseName, request.getParameter("contentType"), size, file, ownerOf(request));
+        uploads.put(id, upload);
+
+        response.setStatus(HttpServletResponse.SC_CREATED);
+        response.setHeader("Location", request.getContextPath() + prefix + "/" + id);
+        writeStatus(upload, request, response);
+    }
+
+    // Bloc écrit en place par des écritures FileChannel positionnelles ; un bloc déjà reçu peut être renvoyé
+    private void writeChunk(Upload upload, HttpServletRequest request) throws IOException, UploadException {
+        String offsetParameter = request.getParameter("offset");
+        if (offsetParameter == null) offsetParameter = request.getHeader("Upload-Offset");
+        if (offsetParameter == null) throw new UploadException(HttpServletResponse.SC_BAD_REQUEST, "offset is required");
+        long offset = parseLong(offsetParameter, "offset");
+        if (offset < 0 || offset > upload.size) throw new UploadException(HttpServletResponse.SC_BAD_REQUEST, "offset out of range");
+        long declared = request.getContentLengthLong();
+        if (declared > upload.size - offset) throw new UploadException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Chunk goes past the declared size");
+        // Bloc en cours compté sous le verrou : complete() ne peut plus renommer le fichier sous ses écritures
+        synchronized (upload) {
+            if (upload.complete) throw new UploadException(HttpServletResponse.SC_CONFLICT, "Upload already completed");
+            upload.writers++;
+            upload.touch();
+        }
+
+        long position = offset;
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BUFFER_SIZE);
+        try (InputStream in = request.getInputStream();
+             FileChannel channel = FileChannel.open(upload.file, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(buffer.array(), 0, buffer.capacity())) >= 0) {
+                if (read > upload.size - position) throw new UploadException(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Chunk goes past the declared size");
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) position += channel.write(buffer, position);
+            }
+        } finally {
+            // Même interrompu, le début du bloc est bien écrit : la reprise repart de là
+            synchronized (upload) {
+                if (position > offset) upload.received(offset, position);
+                upload.writers--;
+                upload.touch();
+            }
+        }
+    }
+
+    // Tout l'intervalle [0, size) reçu et aucun bloc en cours : données forcées sur disque puis renommage atomique
+    private void complete(Upload upload) throws IOException, UploadException {
+        synchronized (upload) {
+            if (upload.complete) return;
+            if (upload.writers > 0) {
+                throw new UploadException(HttpServletResponse.SC_CONFLICT, "Chunk upload in progress");
+            }
+            if (upload.contiguous() < upload.size) {
+                throw new UploadException(HttpServletResponse.SC_CONFLICT, "Missing bytes from offset " + upload.contiguous());
+            }
+            try (FileChannel channel = FileChannel.open(upload.file, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Path committed = directory.resolve(upload.id + ".upload");
+            try {
+                Files.move(upload.file, committed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(upload.file, committed, StandardCopyOption.REPLACE_EXISTING);
+            }
+            upload.file = committed;
+            upload.complete = true;
+            upload.touch();
+        }
+    }
+
+    // Au plus un passage par SWEEP_INTERVAL_MILLIS, par la première requête qui tombe après l'intervalle
+    private void sweepIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_MILLIS || !lastSweep.compareAndSet(last, now)) return;
+        sweep(now);
+    }
+
+    // Envois abandonnés, jamais réclamés, ou réclamés depuis CLAIMED_TTL_MILLIS
+    private void sweep(long now) {
+        for (Upload upload : uploads.values()) {
+            Path file;
+            synchronized (upload) {
+                if (upload.writers > 0) continue;
+                long ttl = upload.claimed ? CLAIMED_TTL_MILLIS : ttlMillis;
+                if (upload.lastActivity >= now - ttl) continue;
+                uploads.remove(upload.id);
+                file = upload.file;
+            }
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeStatus(Upload upload, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Status status;
+        synchronized (upload) {
+            status = new Status(upload);
+        }
+        STATUS_WRITER.write(status, request, response);
+    }
+
+    private static long parseLong(String value, String name) throws UploadException {
+        try {
+            return TypeConverters.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new UploadException(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + name + ": " + value);
+        }
+    }
+
+    // État d'un envoi ; les intervalles reçus sont fusionnés au fil de l'eau
+    private static final class Upload {
+        final String id;
+        final String fileName;
+        final String contentType;
+        final long size;
+        final Object owner;
+        Path file;
+        boolean complete;
+        boolean claimed;
+        // Blocs en cours d'écriture
+        int writers;
+        volatile long lastActivity = System.currentTimeMillis();
+        // début -> fin (exclue), intervalles disjoints et non contigus
+        final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+        Upload(String id, String fileName, String contentType, long size, Path file, Object owner) {
+            this.id = id;
+            this.fileName = fileName;
+            this.contentType = contentType;
+            this.size = size;
+            this.file = file;
+            this.owner = owner;
+        }
+
+        void touch() {
+            lastActivity = System.currentTimeMillis();
+        }
+
+        void received(long start, long end) {
+            Map.Entry<Long, Long> before = ranges.floorEntry(start);
+            if (before != null && before.getValue() >= start) {
+                start = before.getKey();
+                end = Math.max(end, before.getValue());
+            }
+            Map.Entry<Long, Long> next;
+            while ((next = ranges.ceilingEntry(start)) != null && next.getKey() <= end) {
+                end = Math.max(end, next.getValue());
+                ranges.remove(next.getKey());
+            }
+            ranges.put(start, end);
+        }
+
+        // Premier octet manquant : point de reprise
+        long contiguous() {
+            Long end = ranges.get(0L);
+            return end == null ? 0 : end;
+        }
+
+        long receivedBytes() {
+            long total = 0;
+            for (Map.Entry<Long, Long> range : ranges.entrySet()) total += range.getValue() - range.getKey();
+            return total;
+        }
+    }
+
+    // Réponse JSON des requêtes du protocole
+    private static final class Status {
+        final String id;
+        final String fileName;
+        final long size;
+        final long offset;
+        final long received;
+        final boolean complete;
+
+        Status(Upload upload) {
+            this.id = upload.id;
+            this.fileName = upload.fileName;
+            this.size = upload.size;
+            this.offset = upload.contiguous();
+            this.received = upload.receivedBytes();
+            this.complete = upload.complete;
+        }
+    }
+
+    private static final class UploadException extends Exception {
+        final int status;
+
+        UploadException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package other;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import annotation.methods.Bulkhead;
+
+// Cloison d'une route (@Bulkhead) : nombre d'exécutions simultanées borné, file d'attente courte et bornée.
+// Une route lente ne peut occuper que ses propres places, pas tous les threads du conteneur.
+// Compteurs lisibles à chaud : RouteBulkhead.all(), aussi publié dans l'attribut de contexte ATTRIBUTE.
+public class RouteBulkhead {
+
+    public static final String ATTRIBUTE = "framework.bulkheads";
+
+    private static final Map<String, RouteBulkhead> BULKHEADS = new ConcurrentHashMap<>();
+
+    private final String route;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long queueTimeoutMillis;
+    private final int retryAfterSeconds;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private RouteBulkhead(String route, Bulkhead bulkhead) {
+        this.route = route;
+        this.maxConcurrent = bulkhead.maxConcurrent();
+        this.maxQueue = bulkhead.maxQueue();
+        this.queueTimeoutMillis = bulkhead.queueTimeout();
+        this.retryAfterSeconds = bulkhead.retryAfter();
+        // Équitable : les requêtes en file passent dans leur ordre d'arrivée
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    // Cloison de la route "VERBE /url", ou null si ni la méthode ni son contrôleur ne portent @Bulkhead
+    public static RouteBulkhead forRoute(String route, Method method) {
+        Bulkhead bulkhead = method.getAnnotation(Bulkhead.class);
+        if (bulkhead == null) bulkhead = method.getDeclaringClass().getAnnotation(Bulkhead.class);
+        if (bulkhead == null) return null;
+        if (bulkhead.maxConcurrent() <= 0 || bulkhead.maxQueue() < 0) {
+            throw new IllegalArgumentException("Invalid @Bulkhead on " + route + ": maxConcurrent must be positive, maxQueue not negative");
+        }
+        RouteBulkhead routeBulkhead = new RouteBulkhead(route, bulkhead);
+        BULKHEADS.put(route, routeBulkhead);
+        return routeBulkhead;
+    }
+
+    // Toutes les cloisons, par route
+    public static Map<String, RouteBulkhead> all() {
+        return Collections.unmodifiableMap(BULKHEADS);
+    }
+
+    // Place obtenue (à rendre par exit()), ou false : file pleine ou attente dépassée
+    public boolean tryEnter() {
+        try {
+            // Version temporisée, même à 0 : respecte l'équité, tryAcquire() passerait devant la file
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    // Requêtes en attente d'une place
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return route + " {active=" + getActive() + "/" + maxConcurrent + ", queued=" + getQueued()
+                + ", rejected=" + getRejected() + "}";
+    }
+}
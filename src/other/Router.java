@@ -0,0 +1,285 @@
+package other;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Routeur en arbre radix (trie compressé) construit une seule fois dans init().
+// Templates supportés :
+//   /orders/{id}/items/{itemId}   -> variables de chemin (fin de segment, un segment chacune ;
+//                                    /a/{id}.json est refusé, /a/v{id} accepté)
+//   /files/{path*} ou /files/*     -> joker final (tout le reste du chemin)
+// La recherche parcourt l'URI caractère par caractère, sans substring ni split :
+// la seule allocation est le tableau des positions des variables capturées.
+public class Router {
+
+    // Attribut de requête contenant les variables de chemin (Map<String, String>)
+    public static final String PATH_VARIABLES_ATTRIBUTE = "framework.pathVariables";
+
+    private final Node root = new Node("");
+    private int maxParams;
+    private int size;
+
+    // Enregistrer une route ; les conflits sont détectés au démarrage
+    public void add(String template, Mapping mapping) {
+        if (template == null) throw new IllegalArgumentException("Route template is null");
+
+        List<String> names = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        int length = template.length();
+
+        while (i < length) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                int close = template.indexOf('}', i);
+                if (close < 0) throw new IllegalArgumentException("Unclosed '{' in route: " + template);
+                String name = template.substring(i + 1, close).trim();
+                if (name.isEmpty()) throw new IllegalArgumentException("Empty path variable in route: " + template);
+
+                if (name.endsWith("*")) {
+                    if (close != length - 1) throw new IllegalArgumentException("Wildcard must end the route: " + template);
+                    names.add(name.substring(0, name.length() - 1));
+                    node = node.wildcard();
+                } else {
+                    // Une variable prend tout le segment jusqu'au '/' : un texte après elle ne correspondrait jamais
+                    if (close + 1 < length && template.charAt(close + 1) != '/') {
+                        throw new IllegalArgumentException("Path variable {" + name + "} must end its segment: " + template);
+                    }
+                    names.add(name);
+                    node = node.param();
+                }
+                i = close + 1;
+            } else if (c == '*' && i == length - 1) {
+                names.add("*");
+                node = node.wildcard();
+                i++;
+            } else {
+                int end = i;
+                while (end < length && template.charAt(end) != '{' && !(template.charAt(end) == '*' && end == length - 1)) {
+                    end++;
+                }
+                node = node.insertStatic(template, i, end);
+                i = end;
+            }
+        }
+
+        if (node.mapping != null) {
+            throw new IllegalStateException("Conflicting route '" + template + "' with '" + node.template + "'");
+        }
+        node.mapping = mapping;
+        node.template = template;
+        node.paramNames = names.toArray(new String[0]);
+        maxParams = Math.max(maxParams, names.size());
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Recherche en O(longueur du chemin) ; null si aucune route ne correspond
+    public Match match(String path) {
+        if (path == null) return null;
+        int[] bounds = maxParams == 0 ? null : new int[maxParams * 2];
+        Node node = match(root, path, 0, bounds, 0);
+        return node == null ? null : new Match(node, path, bounds);
+    }
+
+    private static Node match(Node node, String path, int pos, int[] bounds, int depth) {
+        int length = path.length();
+        if (pos == length && node.mapping != null) return node;
+
+        // 1. Segment statique : priorité la plus forte
+        if (pos < length) {
+            Node child = node.staticChild(path.charAt(pos));
+            if (child != null && path.regionMatches(pos, child.label, 0, child.label.length())) {
+                Node found = match(child, path, pos + child.label.length(), bounds, depth);
+                if (found != null) return found;
+            }
+        }
+
+        // 2. Variable de chemin : un segment non vide jusqu'au prochain '/'
+        if (node.paramChild != null && pos < length) {
+            int end = path.indexOf('/', pos);
+            if (end < 0) end = length;
+            if (end > pos) {
+                bounds[depth * 2] = pos;
+                bounds[depth * 2 + 1] = end;
+                Node found = match(node.paramChild, path, end, bounds, depth + 1);
+                if (found != null) return found;
+            }
+        }
+
+        // 3. Joker : consomme tout le reste du chemin
+        if (node.wildcardChild != null && node.wildcardChild.mapping != null) {
+            bounds[depth * 2] = pos;
+            bounds[depth * 2 + 1] = length;
+            return node.wildcardChild;
+        }
+
+        return null;
+    }
+
+    private static final class Node {
+        private final String label;
+        private Node[] children = new Node[0];
+        private char[] indices = new char[0];
+        private Node paramChild;
+        private Node wildcardChild;
+
+        private Mapping mapping;
+        private String template;
+        private String[] paramNames;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node staticChild(char c) {
+            for (int i = 0; i < indices.length; i++) {
+                if (indices[i] == c) return children[i];
+            }
+            return null;
+        }
+
+        private Node param() {
+            if (paramChild == null) paramChild = new Node("");
+            return paramChild;
+        }
+
+        private Node wildcard() {
+            if (wildcardChild == null) wildcardChild = new Node("");
+            return wildcardChild;
+        }
+
+        // Insérer template[start, end) sous ce noeud en découpant les arêtes si nécessaire
+        private Node insertStatic(String template, int start, int end) {
+            Node node = this;
+            int i = start;
+            while (i < end) {
+                Node child = node.staticChild(template.charAt(i));
+                if (child == null) {
+                    Node leaf = new Node(template.substring(i, end));
+                    node.addChild(leaf);
+                    return leaf;
+                }
+
+                int common = 0;
+                int max = Math.min(child.label.length(), end - i);
+                while (common < max && child.label.charAt(common) == template.charAt(i + common)) {
+                    common++;
+                }
+
+                if (common < child.label.length()) {
+                    node.replaceChild(child, child.split(common));
+                    child = node.staticChild(template.charAt(i));
+                }
+                node = child;
+                i += common;
+            }
+            return node;
+        }
+
+        // Couper l'arête à la position donnée : retourne le nouveau parent
+        private Node split(int at) {
+            Node parent = new Node(label.substring(0, at));
+            Node rest = new Node(label.substring(at));
+            rest.children = children;
+            rest.indices = indices;
+            rest.paramChild = paramChild;
+            rest.wildcardChild = wildcardChild;
+            rest.mapping = mapping;
+            rest.template = template;
+            rest.paramNames = paramNames;
+            parent.addChild(rest);
+            return parent;
+        }
+
+        private void addChild(Node child) {
+            int n = children.length;
+            Node[] newChildren = new Node[n + 1];
+            char[] newIndices = new char[n + 1];
+            System.arraycopy(children, 0, newChildren, 0, n);
+            System.arraycopy(indices, 0, newIndices, 0, n);
+            newChildren[n] = child;
+            newIndices[n] = child.label.charAt(0);
+            children = newChildren;
+            indices = newIndices;
+        }
+
+        private void replaceChild(Node oldChild, Node newChild) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == oldChild) {
+                    children[i] = newChild;
+                    indices[i] = newChild.label.charAt(0);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Résultat d'une recherche : le mapping et les variables de chemin capturées
+    public static final class Match {
+        private final Node node;
+        private final String path;
+        private final int[] bounds;
+        private Map<String, String> pathVariables;
+
+        private Match(Node node, String path, int[] bounds) {
+            this.node = node;
+            this.path = path;
+            this.bounds = bounds;
+        }
+
+        public Mapping getMapping() {
+            return node.mapping;
+        }
+
+        public String getTemplate() {
+            return node.template;
+        }
+
+        // Les substrings ne sont créées qu'ici, une fois la route trouvée ; décodées (%xx, UTF-8) comme getParameter
+        public Map<String, String> getPathVariables() {
+            if (pathVariables == null) {
+                String[] names = node.paramNames;
+                if (names.length == 0) {
+                    pathVariables = Collections.emptyMap();
+                } else {
+                    pathVariables = new HashMap<>(names.length * 2);
+                    for (int i = 0; i < names.length; i++) {
+                        pathVariables.put(names[i], decode(path.substring(bounds[i * 2], bounds[i * 2 + 1])));
+                    }
+                }
+            }
+            return pathVariables;
+        }
+
+        // Décodage %xx d'un segment de getRequestURI() ; '+' reste un '+' dans un chemin.
+        // Segment mal encodé : valeur brute
+        private static String decode(String segment) {
+            if (segment.indexOf('%') < 0) return segment;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(segment.length());
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '%') {
+                    if (i + 2 >= segment.length()) return segment;
+                    int high = Character.digit(segment.charAt(i + 1), 16);
+                    int low = Character.digit(segment.charAt(i + 2), 16);
+                    if (high < 0 || low < 0) return segment;
+                    bytes.write((high << 4) | low);
+                    i += 2;
+                } else {
+                    byte[] encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                    bytes.write(encoded, 0, encoded.length);
+                }
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
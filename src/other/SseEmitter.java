@@ -0,0 +1,322 @@
+package other;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Connexion Server-Sent Events renvoyée par une méthode de contrôleur : la requête passe en mode asynchrone,
+// le thread du conteneur est rendu tout de suite et l'application envoie ses événements depuis n'importe quel thread.
+// Un commentaire de heartbeat part à intervalle régulier ; une écriture en échec (client parti) ferme la connexion.
+// Sortie non bloquante (WriteListener) : send() et les heartbeats mettent la trame en file et n'écrivent que si le
+// socket l'accepte, le reste part dans onWritePossible. Un client lent ne bloque donc ni l'appelant ni le thread
+// des heartbeats ; au-delà de MAX_PENDING_BYTES en attente, il est déconnecté.
+// Le servlet doit être déclaré <async-supported>true</async-supported> dans web.xml.
+public class SseEmitter {
+
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 15_000;
+
+    private static final byte[] HEARTBEAT = ": heartbeat\n\n".getBytes(StandardCharsets.US_ASCII);
+    // Trames en attente d'un client qui ne lit plus
+    private static final int MAX_PENDING_BYTES = 1024 * 1024;
+
+    // Un seul thread pour les heartbeats de toutes les connexions : il ne fait que mettre en file, sans attendre le réseau
+    private static final ScheduledExecutorService HEARTBEATS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sse-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final List<Runnable> closeCallbacks = new CopyOnWriteArrayList<>();
+
+    // Trames pas encore écrites (dont celles envoyées avant que la connexion soit prête)
+    private final ArrayDeque<byte[]> pending = new ArrayDeque<>();
+    private int pendingBytes;
+    private AsyncContext asyncContext;
+    private ServletOutputStream stream;
+    // isReady() a renvoyé false : on attend onWritePossible avant d'écrire à nouveau
+    private boolean awaitingWritable;
+    // complete() demandé : la requête se termine une fois la file vidée
+    private boolean completing;
+    private volatile ScheduledFuture<?> heartbeat;
+    private boolean closed;
+
+    // Sans délai maximal (la connexion vit jusqu'à complete() ou la déconnexion du client)
+    public SseEmitter() {
+        this(0, DEFAULT_HEARTBEAT_MILLIS);
+    }
+
+    // timeoutMillis : durée de vie maximale (0 : aucune) ; heartbeatMillis : 0 désactive les heartbeats
+    public SseEmitter(long timeoutMillis, long heartbeatMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    // Événement sans nom : data en JSON, ou tel quel si c'est une chaîne
+    public void send(Object data) throws IOException {
+        send(null, null, data);
+    }
+
+    public void send(String event, Object data) throws IOException {
+        send(event, null, data);
+    }
+
+    // IOException : connexion fermée, client parti ou trop lent ; l'émetteur est alors fermé.
+    // La trame est mise en file : une déconnexion survenue pendant son envoi n'apparaît qu'au send() suivant.
+    // event et id ne peuvent pas contenir de retour à la ligne (IllegalArgumentException)
+    public void send(String event, String id, Object data) throws IOException {
+        enqueue(frame(event, id, data), false);
+        drain();
+    }
+
+    // Fin normale côté serveur, après l'envoi des trames encore en file
+    public void complete() {
+        synchronized (this) {
+            if (closed || completing) return;
+            completing = true;
+            // Avant start() ou avant le premier onWritePossible : c'est eux qui termineront
+            if (asyncContext == null || stream == null || awaitingWritable || !pending.isEmpty()) return;
+        }
+        close(true);
+    }
+
+    // Appelé une fois à la fermeture : complete(), déconnexion, délai dépassé ou erreur
+    public void onClose(Runnable callback) {
+        boolean alreadyClosed;
+        synchronized (this) {
+            alreadyClosed = closed;
+            if (!alreadyClosed) closeCallbacks.add(callback);
+        }
+        if (alreadyClosed) callback.run();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    // Passage en mode asynchrone : appelé par le framework après le retour du contrôleur
+    void start(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("text/event-stream;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // Pas de mise en tampon par un proxy nginx
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext context = Utils.startAsync(request, response);
+        context.setTimeout(timeoutMillis);
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                close(false);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close(true);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                close(true);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {}
+        });
+
+        ServletOutputStream out = response.getOutputStream();
+        boolean completedEarly;
+        boolean alreadyClosed;
+        synchronized (this) {
+            asyncContext = context;
+            alreadyClosed = closed;
+            completedEarly = closed || completing;
+            // Premier octet envoyé : en-têtes partis, l'EventSource du client passe à l'état ouvert
+            if (!completedEarly && pending.isEmpty()) pending.add(HEARTBEAT);
+        }
+        if (completedEarly) {
+            // complete() appelé avant le retour du contrôleur : on envoie ce qui a été émis (sur le thread de la
+            // requête, flux encore bloquant) puis on termine
+            byte[] frame;
+            while ((frame = pollPending()) != null) out.write(frame);
+            out.flush();
+            if (alreadyClosed) context.complete();
+            else close(true);
+            return;
+        }
+        // Le conteneur appelle onWritePossible dès que le flux est prêt : premier envoi de la file
+        out.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                synchronized (SseEmitter.this) {
+                    awaitingWritable = false;
+                    if (stream == null) stream = out;
+                }
+                drain();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                close(true);
+            }
+        });
+        if (heartbeatMillis > 0) {
+            heartbeat = HEARTBEATS.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+            // Fermeture survenue pendant la planification
+            if (isClosed()) heartbeat.cancel(false);
+        }
+    }
+
+    // Inutile si des trames attendent déjà : la connexion n'est pas inactive
+    private void heartbeat() {
+        try {
+            if (enqueue(HEARTBEAT, true)) drain();
+        } catch (IOException e) {
+            // Connexion déjà fermée
+        }
+    }
+
+    private synchronized byte[] pollPending() {
+        byte[] frame = pending.poll();
+        if (frame != null) pendingBytes -= frame.length;
+        return frame;
+    }
+
+    // false : heartbeat ignoré (onlyIfIdle et file non vide)
+    private boolean enqueue(byte[] frame, boolean onlyIfIdle) throws IOException {
+        boolean tooSlow;
+        synchronized (this) {
+            if (closed || completing) throw new IOException("SSE connection closed");
+            if (onlyIfIdle && (awaitingWritable || !pending.isEmpty())) return false;
+            tooSlow = pendingBytes + frame.length > MAX_PENDING_BYTES;
+            if (!tooSlow) {
+                pending.add(frame);
+                pendingBytes += frame.length;
+            }
+        }
+        if (tooSlow) {
+            close(true);
+            throw new IOException("SSE client too slow: " + MAX_PENDING_BYTES + " bytes pending");
+        }
+        return true;
+    }
+
+    // Écrit la file tant que le flux l'accepte sans bloquer ; écritures sérialisées par le moniteur
+    // (plusieurs threads applicatifs, le heartbeat et onWritePossible partagent le flux)
+    private void drain() {
+        boolean finished = false;
+        boolean failed = false;
+        synchronized (this) {
+            if (closed || stream == null || awaitingWritable) return;
+            try {
+                while (!pending.isEmpty()) {
+                    if (!stream.isReady()) {
+                        awaitingWritable = true;
+                        return;
+                    }
+                    stream.write(pollPending());
+                }
+                if (!stream.isReady()) {
+                    awaitingWritable = true;
+                    return;
+                }
+                stream.flush();
+                finished = completing;
+            } catch (IOException | IllegalStateException e) {
+                failed = true;
+            }
+        }
+        if (failed || finished) close(true);
+    }
+
+    private void close(boolean completeContext) {
+        AsyncContext context;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            context = asyncContext;
+        }
+        if (heartbeat != null) heartbeat.cancel(false);
+        if (completeContext && context != null) {
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // Contexte déjà terminé par le conteneur
+            }
+        }
+        for (Runnable callback : closeCallbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // "event: nom\nid: x\ndata: ligne\n...\n\n" ; chaque ligne de data devient une ligne "data:"
+    private static byte[] frame(String event, String id, Object data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (event != null) {
+            checkSingleLine("event", event);
+            writeField(bytes, "event", event);
+        }
+        if (id != null) {
+            checkSingleLine("id", id);
+            writeField(bytes, "id", id);
+        }
+        String text;
+        if (data instanceof CharSequence) {
+            text = data.toString();
+        } else {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            JsonOutput out = new JsonOutput(() -> json);
+            try {
+                JsonCodecs.forType(data == null ? Object.class : data.getClass()).write(data, out);
+                out.flush();
+            } finally {
+                out.release();
+            }
+            text = json.toString(StandardCharsets.UTF_8);
+        }
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '\n') {
+                int end = i > start && text.charAt(i - 1) == '\r' ? i - 1 : i;
+                writeField(bytes, "data", text.substring(start, end));
+                start = i + 1;
+            }
+        }
+        bytes.write('\n');
+        return bytes.toByteArray();
+    }
+
+    // event et id tiennent sur une ligne : un retour à la ligne ajouterait des champs à la trame
+    private static void checkSingleLine(String name, String value) {
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("SSE " + name + " must not contain CR or LF");
+        }
+    }
+
+    private static void writeField(ByteArrayOutputStream bytes, String name, String value) {
+        bytes.writeBytes(name.getBytes(StandardCharsets.US_ASCII));
+        bytes.write(':');
+        bytes.write(' ');
+        bytes.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        bytes.write('\n');
+    }
+}
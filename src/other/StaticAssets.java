@@ -0,0 +1,283 @@
+package other;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Fichiers statiques (init-param static_assets = dossier, static_prefix = préfixe d'URL, "/assets" par défaut).
+// Au démarrage, chaque fichier est haché (SHA-256) et, s'il est textuel, compressé en .gz dans un dossier de cache
+// (le dossier servi peut être en lecture seule : WAR non décompressé), en parallèle. Un .gz fourni à côté de
+// l'original et plus récent que lui est repris tel quel. Une requête ne fait ensuite qu'une recherche dans une table
+// figée : ni hachage ni compression.
+//   /assets/css/app.3f2a9c1b04de.css  -> URL empreinte, Cache-Control immutable (un an)
+//   /assets/css/app.css               -> URL simple, revalidée par ETag
+// Les vues obtiennent l'URL empreinte par ${assets['css/app.css']} (attribut de contexte) ou Utils.assetUrl(request, "css/app.css").
+public class StaticAssets {
+
+    public static final String ATTRIBUTE = "assets";
+    private static final int FINGERPRINT_LENGTH = 12;
+    // En dessous, l'en-tête gzip coûte plus qu'il ne rapporte
+    private static final long MIN_COMPRESS_SIZE = 1024;
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+
+    private final String prefix;
+    private final Path root;
+    // URL relative au préfixe (empreinte ou simple) -> fichier
+    private final Map<String, Asset> byUrl;
+    // Chemin logique -> URL empreinte complète (contexte + préfixe)
+    private final Map<String, String> urls;
+
+    private StaticAssets(String prefix, Path root, Map<String, Asset> byUrl, Map<String, String> urls) {
+        this.prefix = prefix;
+        this.root = root;
+        this.byUrl = byUrl;
+        this.urls = urls;
+    }
+
+    // Parcours du dossier, hachage et compression répartis sur les coeurs ; contentTypes : type MIME d'un nom de fichier ;
+    // cacheDirectory : destination des .gz produits, null pour ne servir que les .gz déjà présents
+    public static StaticAssets scan(Path root, String prefix, String contextPath, Function<String, String> contentTypes,
+            Path cacheDirectory) throws IOException {
+        String normalizedPrefix = prefix.endsWith("/") ? prefix.substring(0, prefix.length() - 1) : prefix;
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(file -> !isSidecar(file))
+                    .toList();
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        List<CompletableFuture<Asset>> pending = new ArrayList<>(files.size());
+        try {
+            for (Path file : files) {
+                String logical = root.relativize(file).toString().replace('\\', '/');
+                String contentType = contentTypes.apply(file.getFileName().toString());
+                Path cached = cacheDirectory == null ? null : cacheDirectory.resolve(logical + ".gz");
+                pending.add(CompletableFuture.supplyAsync(() -> prepare(file, logical, contentType, cached), workers));
+            }
+            Map<String, Asset> byUrl = new HashMap<>();
+            Map<String, String> urls = new HashMap<>();
+            for (CompletableFuture<Asset> future : pending) {
+                Asset asset = future.join();
+                byUrl.put(asset.logical, asset);
+                byUrl.put(asset.fingerprinted, asset);
+                urls.put(asset.logical, contextPath + normalizedPrefix + "/" + asset.fingerprinted);
+            }
+            return new StaticAssets(normalizedPrefix, root, Map.copyOf(byUrl), Collections.unmodifiableMap(urls));
+        } catch (CompletionException e) {
+            throw new IOException("Static asset scan failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    public boolean handles(String relativeURI) {
+        return relativeURI.startsWith(prefix + "/");
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return urls.size();
+    }
+
+    // URL empreinte d'un chemin logique ("css/app.css"), ou null s'il n'existait pas au démarrage
+    public String url(String logicalPath) {
+        return urls.get(logicalPath.startsWith("/") ? logicalPath.substring(1) : logicalPath);
+    }
+
+    // Chemin logique -> URL, exposé aux JSP sous l'attribut de contexte "assets"
+    public Map<String, String> getUrls() {
+        return urls;
+    }
+
+    public void serve(HttpServletRequest request, HttpServletResponse response, String relativeURI) throws IOException {
+        String key = relativeURI.substring(prefix.length() + 1);
+        Asset asset = byUrl.get(key);
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader("Cache-Control", key.equals(asset.fingerprinted) ? IMMUTABLE : REVALIDATE);
+        if (asset.gzip != null) response.setHeader("Vary", "Accept-Encoding");
+
+        // Une représentation par encodage : chacune son ETag
+        boolean gzip = asset.gzip != null && acceptsGzip(request.getHeader("Accept-Encoding"));
+        String etag = gzip ? asset.gzipEtag : asset.etag;
+        response.setHeader("ETag", etag);
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null && FileDownload.matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        Path file = gzip ? asset.gzip : asset.file;
+        long length = gzip ? asset.gzipLength : asset.length;
+        if (gzip) response.setHeader("Content-Encoding", "gzip");
+        response.setContentType(asset.contentType);
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) return;
+        FileDownload.send(file, 0, length, request, response);
+    }
+
+    // Hachage puis .gz éventuel ; une compression impossible laisse simplement le fichier sans version .gz
+    private static Asset prepare(Path file, String logical, String contentType, Path cached) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(ContentStore.ALGORITHM);
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = in.read(buffer)) > 0) digest.update(buffer, 0, read);
+            }
+            String hash = ContentStore.toHex(digest.digest());
+            long length = Files.size(file);
+
+            Path gzip = null;
+            long gzipLength = -1;
+            if (length >= MIN_COMPRESS_SIZE && isCompressible(contentType)) {
+                Path sidecar = gzipVersion(file, logical, cached);
+                if (sidecar != null) {
+                    gzipLength = Files.size(sidecar);
+                    // Gain négligeable : l'original suffit
+                    if (gzipLength < length * 9 / 10) gzip = sidecar;
+                }
+            }
+            return new Asset(logical, fingerprint(logical, hash), file, length, gzip, gzipLength,
+                    contentType != null ? contentType : "application/octet-stream", hash);
+        } catch (IOException e) {
+            throw new CompletionException(new IOException(logical + ": " + e.getMessage(), e));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ContentStore.ALGORITHM + " not available", e);
+        }
+    }
+
+    // .gz livré à côté de l'original, sinon celui du cache, (re)compressé s'il est plus ancien ; null en cas d'échec
+    private static Path gzipVersion(Path file, String logical, Path cached) throws IOException {
+        Path sidecar = file.resolveSibling(file.getFileName() + ".gz");
+        if (isFresh(sidecar, file)) return sidecar;
+        if (cached == null) return null;
+        if (isFresh(cached, file)) return cached;
+        try {
+            Files.createDirectories(cached.getParent());
+            compress(file, cached);
+            return cached;
+        } catch (IOException e) {
+            System.err.println("Static asset " + logical + " served uncompressed: " + e);
+            return null;
+        }
+    }
+
+    private static boolean isFresh(Path gzip, Path file) throws IOException {
+        return Files.isRegularFile(gzip) && Files.getLastModifiedTime(gzip).compareTo(Files.getLastModifiedTime(file)) >= 0;
+    }
+
+    // Écrit à côté puis renommé : un lecteur ne voit jamais un .gz partiel
+    private static void compress(Path file, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024) {
+                     { def.setLevel(Deflater.BEST_COMPRESSION); }
+                 }) {
+                Files.copy(file, out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // x.gz à côté de x : version compressée, pas un fichier à part
+    private static boolean isSidecar(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".gz") && Files.exists(file.resolveSibling(name.substring(0, name.length() - 3)));
+    }
+
+    // css/app.css -> css/app.3f2a9c1b04de.css
+    private static String fingerprint(String logical, String hash) {
+        String shortHash = hash.substring(0, FINGERPRINT_LENGTH);
+        int slash = logical.lastIndexOf('/');
+        int dot = logical.lastIndexOf('.');
+        if (dot <= slash + 1) return logical + "." + shortHash;
+        return logical.substring(0, dot) + "." + shortHash + logical.substring(dot);
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) return false;
+        return contentType.startsWith("text/")
+                || contentType.contains("javascript")
+                || contentType.contains("json")
+                || contentType.contains("xml")
+                || contentType.equals("image/svg+xml")
+                || contentType.equals("application/wasm");
+    }
+
+    // "gzip" accepté, sauf q=0 explicite
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) continue;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim().replace(" ", "");
+                if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // Métadonnées précalculées d'un fichier
+    private static final class Asset {
+        final String logical;
+        final String fingerprinted;
+        final Path file;
+        final long length;
+        final Path gzip;
+        final long gzipLength;
+        final String contentType;
+        final String etag;
+        final String gzipEtag;
+
+        Asset(String logical, String fingerprinted, Path file, long length, Path gzip, long gzipLength, String contentType, String hash) {
+            this.logical = logical;
+            this.fingerprinted = fingerprinted;
+            this.file = file;
+            this.length = length;
+            this.gzip = gzip;
+            this.gzipLength = gzipLength;
+            this.contentType = contentType;
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package other;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Référence vers un contenu du ContentStore, remise au contrôleur : l'empreinte suffit à le retrouver
+public class StoredContent {
+    private final String digest;
+    private final long size;
+    private final Path path;
+    // Contenu déjà présent : rien n'a été écrit
+    private final boolean deduplicated;
+    private final String fileName;
+    private final String contentType;
+
+    public StoredContent(String digest, long size, Path path, boolean deduplicated, String fileName, String contentType) {
+        this.digest = digest;
+        this.size = size;
+        this.path = path;
+        this.deduplicated = deduplicated;
+        this.fileName = fileName;
+        this.contentType = contentType;
+    }
+
+    // Empreinte SHA-256 en hexadécimal
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean isDeduplicated() {
+        return deduplicated;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public String toString() {
+        return "StoredContent{" + digest + ", " + size + " bytes, " + fileName + "}";
+    }
+}
@@ -0,0 +1,7 @@
+package other;
+
+// Conversion d'une valeur de requête (non vide) vers un type ; enregistrée dans TypeConverters
+@FunctionalInterface
+public interface TypeConverter<T> {
+    T convert(String value);
+}
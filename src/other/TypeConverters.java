@@ -0,0 +1,211 @@
+package other;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registre des conversions chaîne -> type, extensible par register().
+// Les convertisseurs sont résolus une seule fois, à l'enregistrement des routes et des plans de modèles :
+// les convertisseurs applicatifs doivent donc être enregistrés avant l'init() du FrontController.
+public final class TypeConverters {
+
+    private static final Map<Class<?>, TypeConverter<?>> CONVERTERS = new ConcurrentHashMap<>();
+
+    static {
+        register(String.class, value -> value);
+        register(int.class, TypeConverters::parseInt);
+        register(Integer.class, TypeConverters::parseInt);
+        register(long.class, TypeConverters::parseLong);
+        register(Long.class, TypeConverters::parseLong);
+        register(double.class, TypeConverters::parseDouble);
+        register(Double.class, TypeConverters::parseDouble);
+        register(boolean.class, TypeConverters::parseBoolean);
+        register(Boolean.class, TypeConverters::parseBoolean);
+        register(short.class, Short::valueOf);
+        register(Short.class, Short::valueOf);
+        register(byte.class, Byte::valueOf);
+        register(Byte.class, Byte::valueOf);
+        register(float.class, Float::valueOf);
+        register(Float.class, Float::valueOf);
+        register(BigDecimal.class, BigDecimal::new);
+        register(BigInteger.class, BigInteger::new);
+        register(UUID.class, UUID::fromString);
+        register(LocalDate.class, LocalDate::parse);
+        register(LocalDateTime.class, LocalDateTime::parse);
+        register(LocalTime.class, LocalTime::parse);
+        register(Instant.class, Instant::parse);
+    }
+
+    private TypeConverters() {}
+
+    // Ajouter ou remplacer la conversion d'un type
+    public static <T> void register(Class<T> type, TypeConverter<? extends T> converter) {
+        CONVERTERS.put(type, converter);
+    }
+
+    // Convertisseur d'une valeur unique, ou null si le type n'est pas supporté
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static TypeConverter<?> forClass(Class<?> type) {
+        TypeConverter<?> converter = CONVERTERS.get(type);
+        if (converter == null && type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            converter = CONVERTERS.computeIfAbsent(type, key -> value -> Enum.valueOf(enumType, value));
+        }
+        return converter;
+    }
+
+    public static boolean supports(Class<?> type) {
+        return forClass(type) != null;
+    }
+
+    // Valeur d'un paramètre absent ou vide
+    public static Object defaultValue(Class<?> type) {
+        if (type == String.class) return "";
+        if (type == int.class || type == Integer.class) return 0;
+        if (type == long.class || type == Long.class) return 0L;
+        if (type == double.class || type == Double.class) return 0.0;
+        if (type == boolean.class || type == Boolean.class) return false;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == float.class) return 0f;
+        return null;
+    }
+
+    // Valeur unique : chaîne vide -> valeur par défaut
+    public static Object convert(TypeConverter<?> converter, Class<?> type, String value) {
+        return value.isEmpty() ? defaultValue(type) : converter.convert(value);
+    }
+
+    // Conversion d'un paramètre multi-valué (name=1&name=2) vers un tableau ou une List<T>,
+    // ou null si le type n'est pas multi-valué ou si ses éléments ne sont pas supportés
+    @FunctionalInterface
+    public interface ValuesConverter {
+        Object convert(String[] values);
+    }
+
+    public static ValuesConverter forValues(Class<?> type, Type genericType) {
+        if (type == int[].class) {
+            return values -> {
+                int[] result = new int[values.length];
+                for (int i = 0; i < values.length; i++) result[i] = values[i].isEmpty() ? 0 : parseInt(values[i]);
+                return result;
+            };
+        }
+        if (type == long[].class) {
+            return values -> {
+                long[] result = new long[values.length];
+                for (int i = 0; i < values.length; i++) result[i] = values[i].isEmpty() ? 0L : parseLong(values[i]);
+                return result;
+            };
+        }
+        if (type == double[].class) {
+            return values -> {
+                double[] result = new double[values.length];
+                for (int i = 0; i < values.length; i++) result[i] = values[i].isEmpty() ? 0.0 : parseDouble(values[i]);
+                return result;
+            };
+        }
+        if (type == boolean[].class) {
+            return values -> {
+                boolean[] result = new boolean[values.length];
+                for (int i = 0; i < values.length; i++) result[i] = parseBoolean(values[i]);
+                return result;
+            };
+        }
+        if (type == String[].class) {
+            return values -> values.clone();
+        }
+        if (type.isArray() && !type.getComponentType().isPrimitive()) {
+            Class<?> component = type.getComponentType();
+            TypeConverter<?> converter = forClass(component);
+            if (converter == null) return null;
+            return values -> {
+                Object result = Array.newInstance(component, values.length);
+                for (int i = 0; i < values.length; i++) Array.set(result, i, convert(converter, component, values[i]));
+                return result;
+            };
+        }
+        Class<?> element = collectionElementType(type, genericType);
+        if (element != null) {
+            TypeConverter<?> converter = forClass(element);
+            if (converter == null) return null;
+            return values -> {
+                List<Object> result = new ArrayList<>(values.length);
+                for (String value : values) result.add(convert(converter, element, value));
+                return result;
+            };
+        }
+        return null;
+    }
+
+    // Type T d'un champ / paramètre List<T> (ou Collection<T>), sinon null
+    public static Class<?> collectionElementType(Class<?> type, Type genericType) {
+        if (!Collection.class.isAssignableFrom(type) || !type.isAssignableFrom(ArrayList.class)) return null;
+        if (!(genericType instanceof ParameterizedType)) return null;
+        Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+        return argument instanceof Class ? (Class<?>) argument : null;
+    }
+
+    // Chemins rapides : lecture directe des caractères, espaces de bord ignorés sans trim() ni substring
+
+    public static int parseInt(String value) {
+        long result = parseLong(value);
+        if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) throw invalidNumber(value);
+        return (int) result;
+    }
+
+    public static long parseLong(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') start++;
+        while (end > start && value.charAt(end - 1) <= ' ') end--;
+        if (start == end) throw invalidNumber(value);
+
+        boolean negative = false;
+        char first = value.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++start == end) throw invalidNumber(value);
+        }
+
+        // Accumulation en négatif pour couvrir Long.MIN_VALUE
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) throw invalidNumber(value);
+            if (result < (Long.MIN_VALUE + digit) / 10) throw invalidNumber(value);
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) throw invalidNumber(value);
+            return -result;
+        }
+        return result;
+    }
+
+    public static double parseDouble(String value) {
+        // Double.parseDouble ignore déjà les espaces de bord
+        return Double.parseDouble(value);
+    }
+
+    // Même règle que Boolean.parseBoolean, plus "on" (case à cocher HTML) et "1"
+    public static boolean parseBoolean(String value) {
+        return value.equalsIgnoreCase("true") || value.equalsIgnoreCase("on") || value.equals("1");
+    }
+
+    private static NumberFormatException invalidNumber(String value) {
+        return new NumberFormatException("For input string: \"" + value + "\"");
+    }
+}
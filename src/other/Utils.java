@@ -3,22 +3,80 @@ package other;
 import java.io.*;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
-import com.google.gson.Gson;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import annotation.*;
-import annotation.field.ModelField;
 import annotation.methods.Get;
 import annotation.methods.Post;
-import annotation.methods.RestApi;
 import annotation.methods.Url;
 import exception.*;
 
 public class Utils {
-    static String pathDestinationFile = "C:\\Program Files\\Apache Software Foundation\\Tomcat 10.1\\webapps\\Test\\assets\\file";  
+    // Dossier de destination des FileUpload (init-param upload_directory, voir FrontController.init)
+    static String uploadDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "uploads").toString();
+
+    public static void setUploadDirectory(String directory) {
+        uploadDirectory = directory;
+    }
+
+    public static String getUploadDirectory() {
+        return uploadDirectory;
+    }
+
+    // Envois reprenables (init-param resumable_uploads), ou null si désactivés
+    private static volatile ResumableUploads resumableUploads;
+    private static final String CLAIMED_UPLOAD_ATTRIBUTE = "framework.claimedUpload.";
+
+    public static void setResumableUploads(ResumableUploads uploads) {
+        resumableUploads = uploads;
+    }
+
+    public static ResumableUploads getResumableUploads() {
+        return resumableUploads;
+    }
+
+    // Fichiers statiques empreintés (init-param static_assets), ou null si désactivés
+    private static volatile StaticAssets staticAssets;
+
+    public static void setStaticAssets(StaticAssets assets) {
+        staticAssets = assets;
+    }
+
+    public static StaticAssets getStaticAssets() {
+        return staticAssets;
+    }
+
+    // URL empreinte d'un fichier statique pour les vues ; chemin d'origine si inconnu ou si le pipeline est désactivé
+    public static String assetUrl(HttpServletRequest request, String logicalPath) {
+        StaticAssets assets = staticAssets;
+        String url = assets == null ? null : assets.url(logicalPath);
+        if (url != null) return url;
+        return request.getContextPath() + (logicalPath.startsWith("/") ? "" : "/") + logicalPath;
+    }
+
+    // Stockage adressé par contenu (init-param content_store, sinon <upload_directory>/store), créé au premier usage
+    private static volatile String contentStoreDirectory;
+    private static volatile ContentStore contentStore;
+
+    public static void setContentStoreDirectory(String directory) {
+        contentStoreDirectory = directory;
+        contentStore = null;
+    }
+
+    public static ContentStore getContentStore() {
+        ContentStore store = contentStore;
+        if (store == null) {
+            String directory = contentStoreDirectory;
+            store = new ContentStore(directory != null ? Paths.get(directory) : Paths.get(uploadDirectory, "store"));
+            contentStore = store;
+        }
+        return store;
+    }
 
 
     // Initialize controller base package from web.xml
@@ -43,32 +101,47 @@ public class Utils {
             if (controller == null) continue;
             for (Method method : controller.getDeclaredMethods()) {
                 if (method.isAnnotationPresent(Url.class)) {
-                    String url = method.getAnnotation(Url.class).value();
-                    validateUrlUniqueness(url, urlMethodMap, controller, method);
+                    String url = resolveUrl(controller, method);
+                    validateUrlUniqueness(url, setVerbString(method), urlMethodMap, controller, method);
                 }
             }
         }
     }
 
-    private static void validateUrlUniqueness( String url, HashMap<String, String> urlMethodMap,
+    // Une même URL peut avoir un handler GET et un handler POST, mais pas deux pour le même verbe
+    private static void validateUrlUniqueness( String url, String verb, HashMap<String, String> urlMethodMap,
                                                             Class<?> controller, Method method ) 
         throws ServletException 
     {
         if (url == null) throw new ServletException("URL mapping value is null for method: " + method.getName());
 
-        if (urlMethodMap.containsKey(url)) {
-            String existingMethod = urlMethodMap.get(url);
-            throw new ServletException(String.format("Duplicate mapping value '%s' found. URL already exists for method: %s and method: %s.", url, existingMethod, method.getName()));
+        String key = verb.toUpperCase() + " " + url;
+        if (urlMethodMap.containsKey(key)) {
+            String existingMethod = urlMethodMap.get(key);
+            throw new ServletException(String.format("Duplicate mapping value '%s' found. URL already exists for method: %s and method: %s.", key, existingMethod, method.getName()));
         }
 
-        urlMethodMap.put(url, controller.getName() + "." + method.getName());
+        urlMethodMap.put(key, controller.getName() + "." + method.getName());
+    }
+
+    // URL complète d'une méthode : préfixe du @Controller + valeur de @Url
+    public static String resolveUrl(Class<?> controllerClass, Method method) {
+        String url = method.getAnnotation(Url.class).value();
+        Controller controller = controllerClass.getAnnotation(Controller.class);
+        String prefix = controller == null ? "" : controller.prefix();
+        if (url == null || prefix.isEmpty()) return url;
+
+        if (prefix.endsWith("/")) prefix = prefix.substring(0, prefix.length() - 1);
+        if (!prefix.startsWith("/")) prefix = "/" + prefix;
+        if (url.isEmpty()) return prefix;
+        return url.startsWith("/") ? prefix + url : prefix + "/" + url;
     }
 
     public static String getRelativeURI(HttpServletRequest request) {
         return request.getRequestURI().substring(request.getContextPath().length());
     }
 
-    public static void displayDebugInfo(PrintWriter out, String relativeURI, HashMap<String, Mapping> methodList) {
+    public static void displayDebugInfo(PrintWriter out, String relativeURI, Map<String, Mapping> methodList) {
         out.println("<h1>FrameWork : </h1>");
         out.println("<h2>Requested URL: " + relativeURI + "</h2>");
         methodList.forEach((key, mapping) -> {
@@ -83,8 +156,7 @@ public class Utils {
         formData.forEach((key, value) -> out.println("<p>" + key + ": " + value + "</p>"));
     }
 
-    public static void executeMappingMethod(String relativeURI, 
-                                        HashMap<String, Mapping> methodList,
+    public static void executeMappingMethod(String relativeURI, Mapping mapping, VerbAction verbAction,
                                         PrintWriter out, HttpServletRequest request, 
                                         HttpServletResponse response, HashMap<String, 
                                         String> formData) 
@@ -95,21 +167,19 @@ public class Utils {
             return;
         }
         
-        Mapping mapping = methodList.get(relativeURI);
-        
         if (mapping == null) {
             // Si aucun mapping trouvé, renvoyer une erreur 404
             handleError404(request, response);
             return;
         }
         
-        if (!isHttpMethodValid(mapping, request.getMethod())) {
+        if (verbAction == null) {
             handleError("<h1>400</h1>  HTTP method " + request.getMethod() + " is not allowed for this endpoint.", request, response);
             return;
         }
 
         out.println("<p>Executing method:</p>");
-        invokeMethod(mapping, out, request, response, formData);
+        invokeMethod(verbAction, out, request, response, formData);
     }
 
     public static Method findMethod(Class<?> clazz, String methodName) 
@@ -122,24 +192,41 @@ public class Utils {
         throw new NoSuchMethodException("Method " + methodName + " not found in class " + clazz.getName());
     }
 
-    public static void invokeMethod(Mapping mapping, PrintWriter out, 
+    // Une requête = une invocation et un rendu, uniquement pour le handler du verbe demandé
+    public static void invokeMethod(VerbAction verbAction, PrintWriter out, 
                                     HttpServletRequest request, HttpServletResponse response, 
                                     HashMap<String, String> formData) 
         throws ServletException, IOException, ValidationException 
     {
         try {
-            Class<?> controllerClass = Class.forName(mapping.getClassName());
-            Object controllerInstance = controllerClass.getConstructor().newInstance();
-            initializeMySessionAttributes(controllerInstance, request);
-
-            Object result = executeControllerMethod(mapping, request, controllerInstance, response);
-            for (VerbAction verbAction : mapping.getVerbMethodes()) {
-                processMethodResult(result, findMethod(controllerClass, verbAction.getMethode()), out, request, response);
+            // Instance fournie selon le @Scope du contrôleur (MySession déjà injecté)
+            ControllerProvider provider = verbAction.getControllerProvider();
+            Object controllerInstance = provider.acquire(request);
+            boolean pending = false;
+            try {
+                Object result = executeControllerMethod(verbAction, request, controllerInstance, response);
+                if (verbAction.isAsync()) {
+                    // Thread du conteneur libéré ; l'instance n'est rendue au pool qu'à l'achèvement du calcul (même
+                    // après le délai), mais la requête est déliée de ce thread tout de suite (voir finally)
+                    CompletionStage<?> stage = result == null ? CompletableFuture.completedFuture(null) : (CompletionStage<?>) result;
+                    AsyncResultHandler.start(stage, verbAction, request, response, () -> provider.recycle(controllerInstance));
+                    pending = true;
+                } else {
+                    processMethodResult(result, verbAction, out, request, response);
+                }
+            } finally {
+                if (pending) provider.detach();
+                else provider.release(controllerInstance);
             }
             
         } catch (Exception e) {
             
             if (e instanceof ValidationException) throw (ValidationException) e;
+            if (e instanceof HttpStatusException) {
+                // Requête refusée (corps trop gros, JSON invalide...) : statut dédié, pas de trace
+                if (!response.isCommitted()) response.sendError(((HttpStatusException) e).getStatus(), e.getMessage());
+                return;
+            }
 
             System.out.println(e.getMessage() + "Suite de probleme" );
             e.printStackTrace();
@@ -151,263 +238,146 @@ public class Utils {
         // Throw encore l'exception du bas 
     }
 
-    public static Object executeControllerMethod(Mapping mapping, HttpServletRequest request, 
+    public static Object executeControllerMethod(VerbAction verbAction, HttpServletRequest request, 
                                                 Object controllerInstance, HttpServletResponse response) 
         throws NoSuchMethodException, IllegalAccessException, InvocationTargetException, IOException, ServletException, ValidationException 
     {
-        Object obj = new Object(); 
-        ValidateForm checkers = new ValidateForm();
-
-        for (VerbAction verbAction : mapping.getVerbMethodes()) {
-            Method method = findMethod(controllerInstance.getClass(), verbAction.getMethode());
-            Object[] params = getMethodParams(method, request);
-            obj = method.invoke(controllerInstance, params);
+        Object[] params = getMethodParams(verbAction, request);
+        try {
+            return verbAction.getInvoker().invoke(controllerInstance, params);
+        } catch (Error | InvocationTargetException e) {
+            throw e;
+        } catch (Throwable e) {
+            // Même contrat que Method.invoke : l'exception du contrôleur est encapsulée
+            throw new InvocationTargetException(e);
         }
         
-        return obj;
-        
         
         // Throw encore l'exception du bas 
     }
 
-    // Get method parameters from the request
-    public static Object[] getMethodParams(Method method, HttpServletRequest request) 
+    // Valeurs des paramètres : un binder précompilé par paramètre, exécuté dans l'ordre
+    public static Object[] getMethodParams(VerbAction verbAction, HttpServletRequest request) 
         throws ServletException, IOException, ValidationException 
     {
-        Parameter[] parameters = method.getParameters();
-        Object[] paramValues = new Object[parameters.length];
-
-        for (int i = 0; i < parameters.length; i++) {
-            Param param = parameters[i].getAnnotation(Param.class);
-            ModelParam modelParam = parameters[i].getAnnotation(ModelParam.class);
-
-            if (parameters[i].getType().equals(FileUpload.class)) {
-                // Récupérer le fichier
-                Part filePart = request.getPart(param.name());
-                String fileName = Paths.get(filePart.getSubmittedFileName()).getFileName().toString();
-                InputStream fileContent = filePart.getInputStream();
-
-                // Convertir en byte[]
-                byte[] fileData = new byte[fileContent.available()];
-                fileContent.read(fileData);
-
-                // Créer une instance de FileUpload
-                FileUpload fileUpload = new FileUpload(fileName, pathDestinationFile , fileData);
-                paramValues[i] = fileUpload;
-            } 
-            
-            else {
-                // Gérer les autres types de paramètres
-                paramValues[i] = resolveParameterValue(parameters[i], param, modelParam, request);
-            }
+        ParameterBinder[] binders = verbAction.getParameterBinders();
+        Object[] paramValues = new Object[binders.length];
+
+        for (int i = 0; i < binders.length; i++) {
+            paramValues[i] = binders[i].bind(request);
         }
 
         return paramValues;
-
-        
-        // Throw encore l'exception du bas 
     }
 
-
-    private static Object resolveParameterValue(Parameter parameter, Param param, 
-                                                ModelParam modelParam, HttpServletRequest request) 
-        throws ServletException, ValidationException 
-    {
-        if (param != null) {
-            String paramName = param.name().isEmpty() ? parameter.getName() : param.name();
-            return convertToParameterType(parameter.getType(), request.getParameter(paramName));
-        }
-        if (modelParam != null) {
-            return resolveModelParam(parameter, modelParam, request);
-        }
-        if (parameter.getType().equals(MySession.class)) {
-            return new MySession(request.getSession());
-        }
-        return null;
-
+    // Fichier envoyé en multipart : adossé à la Part, rien n'est lu ici
+    static FileUpload toFileUpload(Part filePart) {
+        return new FileUpload(submittedFileName(filePart), uploadDirectory, filePart);
     }
 
-    private static Object resolveModelParam(Parameter parameter, ModelParam modelParam, HttpServletRequest request) 
-        throws ServletException, ValidationException 
+    // Champ fichier : Part multipart, sinon id d'un envoi reprenable terminé envoyé à la place du fichier.
+    // Une Part sans nom de fichier est un champ texte (l'id posté par FormData), pas un fichier
+    static FileUpload resolveFileUpload(HttpServletRequest request, String name, boolean skipEmptyPart)
+        throws IOException, ServletException
     {
-        try {
-            // Instanciation de l'objet
-            Object paramInstance = parameter.getType().getDeclaredConstructor().newInstance();
-
-            // Gestion du nom d'attribut
-            String attributeName = modelParam.name();
-            if (attributeName == null || attributeName.isEmpty()) {
-                attributeName = parameter.getName();
-            }
-
-            // Population des champs
-            populateModelFields(paramInstance, request, attributeName);
-            
-            // Obtention de l'URL de redirection depuis l'annotation
-            String redirectUrl = modelParam.redirectOnError();
-            if (redirectUrl == null || redirectUrl.isEmpty()) {
-                throw new ServletException("redirectOnError must be specified in @ModelParam annotation");
-            }
-            
-            try {
-                // Validation
-                ValidateForm validator = new ValidateForm();
-                validator.validateObject(paramInstance);
-                return paramInstance;
-            } catch (ValidationException ve) {
-                // Configuration de la ModelView pour la redirection
-                ModelView errorView = new ModelView();
-                errorView.setUrl(redirectUrl);
-                
-                // On utilise directement getValidationErrors() pour récupérer les erreurs
-                errorView.add("fieldErrors", ve.getValidationErrors());
-                
-                // Pour les valeurs des champs, on doit les récupérer à partir de l'objet
-                Map<String, String> fieldValues = new HashMap<>();
-                for (Field field : paramInstance.getClass().getDeclaredFields()) {
-                    field.setAccessible(true);
-                    Object value = field.get(paramInstance);
-                    if (value != null) {
-                        fieldValues.put(field.getName(), value.toString());
-                    }
-                }
-                errorView.add("fieldValues", fieldValues);
-                
-                // Configuration de l'exception
-                ve.setModelView(errorView);
-                ve.setRedirectUrl(redirectUrl);
-                
-                throw ve;
-            }
-        } catch (Exception e) {
-            if (e instanceof ValidationException) throw (ValidationException) e;
-            throw new ServletException("Unable to instantiate parameter: " + parameter.getType().getName(), e);
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase().startsWith("multipart/")) {
+            Part filePart = request.getPart(name);
+            if (filePart != null && filePart.getSubmittedFileName() != null
+                    && !(skipEmptyPart && filePart.getSize() == 0)) return toFileUpload(filePart);
+        }
+        ResumableUploads uploads = resumableUploads;
+        String uploadId = uploads == null ? null : request.getParameter(name);
+        if (uploadId == null || uploadId.isEmpty()) return null;
+        // Réclamation à usage unique : un second binder du même champ reçoit le même FileUpload
+        String attribute = CLAIMED_UPLOAD_ATTRIBUTE + uploadId;
+        FileUpload claimed = (FileUpload) request.getAttribute(attribute);
+        if (claimed == null) {
+            claimed = uploads.claim(uploadId, request);
+            if (claimed != null) request.setAttribute(attribute, claimed);
         }
+        return claimed;
     }
-    
-    private static void populateModelFields(Object instance, HttpServletRequest request, String attributeName) 
-        throws ServletException 
-    {
-        
-        for (Field field : instance.getClass().getDeclaredFields()) {
-            ModelField modelField = field.getAnnotation(ModelField.class);
-            String paramName = (modelField != null && !modelField.name().isEmpty()) ? modelField.name() : field.getName();
-            
-            // Gérer le type FileUpload
-            if (field.getType().equals(FileUpload.class)) {
-                Part filePart;
-                try {
-                    // Récupérer le fichier depuis la requête
-                    filePart = request.getPart(attributeName + "." + paramName);
-                    
-                    if (filePart != null && filePart.getSize() > 0) {
-                        // Lire le contenu du fichier
-                        InputStream fileContent = filePart.getInputStream();
-                        String fileName = Paths.get(filePart.getSubmittedFileName()).getFileName().toString();
-                        
-                        // Convertir en byte[]
-                        byte[] fileData = new byte[fileContent.available()];
-                        fileContent.read(fileData);
-                        
-                        // Créer une instance de FileUpload et l'assigner au champ
-                        FileUpload fileUpload = new FileUpload(fileName, Utils.pathDestinationFile, fileData);
-                        field.setAccessible(true);
-                        field.set(instance, fileUpload);
-                    }
-
-                } catch (IOException | ServletException e) {
-                    throw new ServletException("Erreur lors du traitement du fichier : " + e.getMessage(), e);
-                } catch (IllegalAccessException e) {
-                    throw new ServletException("Impossible d'assigner le champ FileUpload : " + e.getMessage(), e);
-                }
-            } else {
-                // Gérer les types de paramètres normaux
-                String paramValue = request.getParameter(attributeName + "." + paramName);
 
-                if (paramValue != null) {
-                    setFieldValue(instance, field, paramValue);
-                }
-            }
-        }
+    // Nom sans chemin, quel que soit le séparateur envoyé par le navigateur (C:\dossier\a.txt -> a.txt)
+    static String submittedFileName(Part filePart) {
+        String submitted = filePart.getSubmittedFileName();
+        if (submitted == null) return filePart.getName();
+        return submitted.substring(Math.max(submitted.lastIndexOf('/'), submitted.lastIndexOf('\\')) + 1);
     }
 
-    
-    private static void setFieldValue(Object instance, Field field, String value) 
-        throws ServletException 
-    {
-        try {
-            field.setAccessible(true);
-            // IF misy erreur ao @ lay verification de valeur
-            // De tsy manao set
-            field.set(instance, convertToParameterType(field.getType(), value));
-        } 
-        
-        catch (IllegalAccessException e) 
-        {    throw new ServletException("Unable to set field value: " + field.getName(), e);    }
-    }
-
-    private static Object convertToParameterType(Class<?> type, String value) {
-        if (value == null || value.isEmpty()) return getDefaultParameterValue(type);
-        if (type == String.class) return value;
-        if (type == int.class || type == Integer.class) return Integer.parseInt(value);
-        if (type == long.class || type == Long.class) return Long.parseLong(value);
-        if (type == double.class || type == Double.class) return Double.parseDouble(value);
-        if (type == boolean.class || type == Boolean.class) return Boolean.parseBoolean(value);
-        throw new IllegalArgumentException("Unsupported parameter type: " + type.getName());
-    }
-
-    private static String getDefaultParameterValue(Class<?> type) {
-        if (type.equals(String.class)) return "";
-        if (type.equals(int.class) || type.equals(Integer.class)) return "0";
-        if (type.equals(long.class) || type.equals(Long.class)) return "0";
-        if (type.equals(double.class) || type.equals(Double.class)) return "0.0";
-        if (type.equals(boolean.class) || type.equals(Boolean.class)) return "false";
-        return null;
-    }
-
-    private static boolean isHttpMethodValid(Mapping mapping, String requestMethod) {
-        for (VerbAction verbAction : mapping.getVerbMethodes()) {
-            String mappedVerb = verbAction.getVerbe();
-            if (mappedVerb.equalsIgnoreCase(requestMethod)) {
-                return true;
-            }
+    // Les variables de chemin ({id}) sont prioritaires sur les paramètres de requête
+    @SuppressWarnings("unchecked")
+    public static String getParameterOrPathVariable(HttpServletRequest request, String name) {
+        Object pathVariables = request.getAttribute(Router.PATH_VARIABLES_ATTRIBUTE);
+        if (pathVariables != null) {
+            String value = ((Map<String, String>) pathVariables).get(name);
+            if (value != null) return value;
         }
-        return false;
+        return request.getParameter(name);
     }
 
-    public static void initializeMySessionAttributes(Object controllerInstance, HttpServletRequest request) 
-        throws IllegalAccessException 
-    {
-        for (Field field : controllerInstance.getClass().getDeclaredFields()) {
-            if (field.getType().equals(MySession.class)) {
-                field.setAccessible(true);
-                field.set(controllerInstance, new MySession(request.getSession()));
-            }
+    // Valeurs multiples d'un paramètre ; une variable de chemin donne une seule valeur
+    @SuppressWarnings("unchecked")
+    public static String[] getParameterValuesOrPathVariable(HttpServletRequest request, String name) {
+        Object pathVariables = request.getAttribute(Router.PATH_VARIABLES_ATTRIBUTE);
+        if (pathVariables != null) {
+            String value = ((Map<String, String>) pathVariables).get(name);
+            if (value != null) return new String[] { value };
         }
+        String[] values = request.getParameterValues(name);
+        return values == null ? new String[0] : values;
     }
 
-    public static void processMethodResult(Object result, Method method, 
+    public static void processMethodResult(Object result, VerbAction verbAction, 
                                             PrintWriter out, HttpServletRequest request, 
                                             HttpServletResponse response) 
         throws ServletException, IOException 
     {
+        if (result instanceof ModelView) 
+        {    handleModelView((ModelView) result, request, response);     return;    }
+
+        if (result instanceof FileDownload) 
+        {    ((FileDownload) result).write(request, response);     return;    }
+
+        if (verbAction.isEventStream()) 
+        {
+            // Requête passée en mode asynchrone : le thread du conteneur est libéré au retour
+            if (result == null) response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            else ((SseEmitter) result).start(request, response);
+            return;
+        }
+
+        if (verbAction.isRestApi()) 
+        {
+            // Octets UTF-8 écrits directement dans le flux de la réponse, sans PrintWriter ni préambule HTML
+            verbAction.getJsonWriter().write(result, request, response);
+            return;
+        }
+
         if (result == null) 
         {    out.println("<p>Method executed, no result to display.</p>");   return;    }
 
         out.println("<p>Method result:</p>");
-        
-        if (result instanceof ModelView) 
-        {    handleModelView((ModelView) result, request, response);     }
+        out.println(result.toString());
+    }
 
-        else if (method.isAnnotationPresent(RestApi.class)) 
-        {
-            response.setContentType("application/json");
-            Gson gson = new Gson();
-            out.println(gson.toJson(result));
-        } 
+    // Mode asynchrone pour un SseEmitter ou un CompletionStage, qui prend alors en charge la fin de la requête.
+    // Sur thread virtuel, le contexte est déjà démarré par le FrontController : la fin lui est retirée (handOff)
+    static AsyncContext startAsync(HttpServletRequest request, HttpServletResponse response) {
+        GuardedExchange exchange = GuardedExchange.of(request);
+        if (exchange != null) {
+            if (!exchange.handOff()) throw new IllegalStateException("Request already completed (timed out)");
+            return exchange.getAsyncContext();
+        }
+        return request.isAsyncStarted() ? request.getAsyncContext() : request.startAsync(request, response);
+    }
 
-        else 
-        {    out.println(result.toString());   }
+    // Route saturée (@Bulkhead) : 503 et délai conseillé avant de réessayer
+    public static void rejectBusy(RouteBulkhead bulkhead, HttpServletResponse response) throws IOException {
+        if (response.isCommitted()) return;
+        response.setHeader("Retry-After", String.valueOf(bulkhead.getRetryAfterSeconds()));
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many concurrent requests on " + bulkhead.getRoute());
     }
 
     // Handle a ModelView result (Forward to JSP)
@@ -419,13 +389,38 @@ public class Utils {
         request.getRequestDispatcher("/" + modelView.getUrl()).forward(request, response);
     }
 
+    // Échec de validation : vue précalculée (chemin de redirection résolu au démarrage), aucune ModelView allouée
+    public static void handleValidationFailure(ValidationException ve, HttpServletRequest request,
+                                                HttpServletResponse response)
+        throws ServletException, IOException
+    {
+        if (ve.getModelView() != null) {
+            handleModelView(ve.getModelView(), request, response);
+            return;
+        }
+        if (ve.getRedirectUrl() == null) {
+            // Corps JSON (@RequestBody) : pas de formulaire à réafficher, 400 et erreurs par champ en JSON
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonResponseWriter.VALIDATION_ERRORS.write(ve.getValidationErrors(), request, response);
+            return;
+        }
+        request.setAttribute("fieldErrors", ve.getValidationErrors());
+        request.setAttribute("fieldValues", ve.getFieldValues());
+        request.getRequestDispatcher(ve.getRedirectUrl()).forward(request, response);
+    }
+
     // Handle errors (forward to error page)
     public static void handleError(String errorMessage, HttpServletRequest request, 
                                     HttpServletResponse response) 
         throws ServletException, IOException 
     {
         request.setAttribute("errorMessage", errorMessage);
-        response.getWriter().println(errorMessage);
+        try {
+            response.getWriter().println(errorMessage);
+        } catch (IllegalStateException e) {
+            // Flux binaire déjà ouvert (réponse JSON) : statut d'erreur si la réponse n'est pas encore partie
+            if (!response.isCommitted()) response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, errorMessage);
+        }
         // request.getRequestDispatcher("/error.jsp").forward(request, response);
     }
 
@@ -455,53 +450,59 @@ public class Utils {
     public static HashMap<String, String> getFormParameters(HttpServletRequest request) {
         HashMap<String, String> formData = new HashMap<>();
         
-        // Récupérer tous les paramètres du formulaire
+        // Récupérer tous les paramètres du formulaire (valeurs multiples jointes, ex: name=1&name=2 -> "1, 2")
         request.getParameterMap().forEach((key, values) -> {
-            if (values.length > 0) {
+            if (values.length == 1) {
                 formData.put(key, values[0]);
+            } else if (values.length > 1) {
+                formData.put(key, String.join(", ", values));
             }
         });
         
         return formData;
     }
     
-    public static void findMethodsAnnotated(Class<?> controllerClass, HashMap<String, Mapping> methodList) {
+    // Construit les entrées de la table des routes : classe et méthode déjà résolues
+    public static void findMethodsAnnotated(Class<?> controllerClass, Map<String, Mapping> methodList) {
         Method[] methods = controllerClass.getDeclaredMethods();
+        // Une seule fabrique d'instances par contrôleur, partagée par toutes ses routes
+        ControllerProvider provider = ControllerProvider.forClass(controllerClass);
     
         for (Method method : methods) {
             if (method.isAnnotationPresent(Url.class)) {
-                Url urlAnnotation = method.getAnnotation(Url.class);
-                String url = urlAnnotation.value();
+                String url = resolveUrl(controllerClass, method);
     
                 // Vérifier le verbe HTTP
                 String verb = setVerbString(method);
-                
-                // Créer le mapping à ajouter
-                Mapping mapping = new Mapping(controllerClass.getName(), new VerbAction(verb, method.getName()));
-    
-                // Vérifier si l'URL existe déjà dans le methodList avec la même action (GET/POST)
-                if (!isMappingDuplicate(methodList, url, verb)) 
-                {    methodList.put(url, mapping);    } 
 
-                else 
+                if (!addRoute(controllerClass, method, url, verb, provider, methodList))
                 {    System.out.println("Duplicate method found for URL: " + url + " with HTTP verb: " + verb);     }
             }
         }
     }
+
+    // Ajoute une route (verbe "get"/"post") ; false si l'URL a déjà un handler pour ce verbe
+    public static boolean addRoute(Class<?> controllerClass, Method method, String url, String verb,
+                                   ControllerProvider provider, Map<String, Mapping> methodList)
+    {
+        // Vérifier si l'URL existe déjà dans le methodList avec la même action (GET/POST)
+        if (isMappingDuplicate(methodList, url, verb)) return false;
+
+        VerbAction verbAction = new VerbAction(verb, method);
+        verbAction.setControllerProvider(provider);
+        verbAction.setBulkhead(RouteBulkhead.forRoute(verb.toUpperCase() + " " + url, method));
+
+        // Même URL, autre verbe : on complète l'index du mapping existant
+        Mapping existingMapping = methodList.get(url);
+        if (existingMapping != null) existingMapping.addVerbMethod(verbAction);
+        else methodList.put(url, new Mapping(controllerClass, verbAction));
+        return true;
+    }
     
     // Vérifier si l'URL et l'action (GET/POST) existent déjà dans le methodList
-    public static boolean isMappingDuplicate(HashMap<String, Mapping> methodList, String url, String verb) {
+    public static boolean isMappingDuplicate(Map<String, Mapping> methodList, String url, String verb) {
         Mapping existingMapping = methodList.get(url);
-        if (existingMapping != null) {
-            // Parcourir tous les VerbActions dans le mapping existant
-            for (VerbAction verbAction : existingMapping.getVerbMethodes()) {
-                // Vérifier si le verbe existe déjà
-                if (verbAction.getVerbe().equalsIgnoreCase(verb)) {
-                    return true; // Duplication trouvée
-                }
-            }
-        }
-        return false;
+        return existingMapping != null && existingMapping.hasVerb(HttpVerb.fromString(verb));
     }
     
 
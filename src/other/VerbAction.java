@@ -1,11 +1,34 @@
 package other;
 
+import java.lang.reflect.Method;
 import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+
+import annotation.methods.AsyncTimeout;
+import annotation.methods.RestApi;
 
 public class VerbAction {
     private String verbe;  // Ex: GET, POST
+    private HttpVerb httpVerb;
     private String methode;  // Le nom de la méthode associée
 
+    // Résolus une seule fois au démarrage (table des routes)
+    private Method method;
+    private MethodInvoker invoker;
+    private ParameterBinder[] parameterBinders;
+    private ControllerProvider controllerProvider;
+    private boolean restApi;
+    private JsonResponseWriter jsonWriter;
+    // Méthode qui renvoie un SseEmitter : connexion Server-Sent Events
+    private boolean eventStream;
+    // Méthode qui renvoie un CompletionStage : rendu à l'achèvement, en mode asynchrone
+    private boolean async;
+    private long asyncTimeoutMillis;
+    // Méthode qui renvoie un FileDownload : fichier envoyé tel quel (Range, ETag...)
+    private boolean fileDownload;
+    // Limite de concurrence de la route (@Bulkhead), ou null
+    private RouteBulkhead bulkhead;
+
     // Constructeur par défaut
     public VerbAction() {}
 
@@ -15,6 +38,21 @@ public class VerbAction {
         setVerbe(verbe);
     }
 
+    // Constructeur utilisé lors du scan : la méthode est déjà résolue
+    public VerbAction(String verbe, Method method) {
+        this(verbe, method.getName());
+        this.method = method;
+        this.invoker = InvokerFactory.create(method);
+        this.parameterBinders = ParameterBinders.forMethod(method);
+        this.restApi = method.isAnnotationPresent(RestApi.class);
+        this.eventStream = SseEmitter.class.isAssignableFrom(method.getReturnType());
+        this.async = CompletionStage.class.isAssignableFrom(method.getReturnType());
+        this.fileDownload = FileDownload.class.isAssignableFrom(method.getReturnType());
+        AsyncTimeout asyncTimeout = method.getAnnotation(AsyncTimeout.class);
+        this.asyncTimeoutMillis = asyncTimeout != null ? asyncTimeout.value() : AsyncResultHandler.DEFAULT_TIMEOUT_MILLIS;
+        this.jsonWriter = restApi && !eventStream && !fileDownload ? JsonResponseWriter.forMethod(method) : null;
+    }
+
     // Getter et Setter pour methode
     public String getMethode() {
         return methode;
@@ -24,6 +62,64 @@ public class VerbAction {
         this.methode = methode;
     }
 
+    public Method getMethod() {
+        return method;
+    }
+
+    public MethodInvoker getInvoker() {
+        return invoker;
+    }
+
+    public ParameterBinder[] getParameterBinders() {
+        return parameterBinders;
+    }
+
+    // Partagé par toutes les routes d'un même contrôleur (voir @Scope)
+    public ControllerProvider getControllerProvider() {
+        return controllerProvider;
+    }
+
+    public void setControllerProvider(ControllerProvider controllerProvider) {
+        this.controllerProvider = controllerProvider;
+    }
+
+    public boolean isRestApi() {
+        return restApi;
+    }
+
+    public boolean isEventStream() {
+        return eventStream;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public boolean isFileDownload() {
+        return fileDownload;
+    }
+
+    public long getAsyncTimeoutMillis() {
+        return asyncTimeoutMillis;
+    }
+
+    public RouteBulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public void setBulkhead(RouteBulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+    // Réponse écrite par le framework, sans page HTML de debug (éventuellement après le retour de la requête)
+    public boolean writesRawResponse() {
+        return restApi || eventStream || async || fileDownload;
+    }
+
+    public JsonResponseWriter getJsonWriter() {
+        return jsonWriter;
+    }
+
     // Getter et Setter pour verbe
     public String getVerbe() {
         return verbe;
@@ -31,6 +127,16 @@ public class VerbAction {
 
     public void setVerbe(String verbe) {
         this.verbe = verbe;
+        this.httpVerb = HttpVerb.fromString(verbe);
+    }
+
+    public HttpVerb getHttpVerb() {
+        return httpVerb;
+    }
+
+    // Classe du contrôleur qui déclare la méthode
+    public Class<?> getControllerClass() {
+        return method == null ? null : method.getDeclaringClass();
     }
 
     // Surcharge de la méthode equals() pour comparer les attributs verbe et methode
@@ -0,0 +1,33 @@
+package other;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Threads virtuels quand la JVM les fournit (Java 21+), sinon un pool de threads démons.
+// Recherche par réflexion : le framework reste compilé en --release 17.
+public final class VirtualThreads {
+
+    private VirtualThreads() {}
+
+    public static boolean isAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // fallbackThreadName : nom des threads du pool de repli
+    public static ExecutorService newExecutor(String fallbackThreadName) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, fallbackThreadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
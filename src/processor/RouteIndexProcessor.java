@@ -0,0 +1,202 @@
+package processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import controller.ControllerScanner;
+
+// Écrit à la compilation l'index des classes @Controller et de leurs routes (ControllerScanner.INDEX_RESOURCE),
+// lu par FrontController.init à la place du scan des répertoires et de la lecture des @Url / @Get / @Post :
+//   app.HomeController
+//   \tGET\t/home/{id}\tshow\tjava.lang.String,int      (verbe, URL préfixée, méthode, types des paramètres)
+// Les doublons verbe + URL sont signalés dès la compilation.
+// Une compilation partielle (IDE) fusionne ses classes avec l'index existant : les entrées dont la classe
+// existe encore sont conservées, ControllerScanner vérifie ensuite @Controller au chargement.
+@SupportedAnnotationTypes("annotation.Controller")
+public class RouteIndexProcessor extends AbstractProcessor {
+
+    private static final String CONTROLLER = "annotation.Controller";
+    private static final String URL = "annotation.methods.Url";
+    private static final String POST = "annotation.methods.Post";
+
+    // Nom binaire de la classe -> lignes de ses routes
+    private final Map<String, List<String>> controllers = new TreeMap<>();
+    // "VERBE url" -> méthode qui la déclare
+    private final Map<String, String> routes = new HashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!controllers.isEmpty()) writeIndex();
+            return false;
+        }
+
+        TypeElement controllerType = processingEnv.getElementUtils().getTypeElement(CONTROLLER);
+        if (controllerType == null) return false;
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(controllerType)) {
+            if (element.getKind() != ElementKind.CLASS) continue;
+            TypeElement type = (TypeElement) element;
+            controllers.put(processingEnv.getElementUtils().getBinaryName(type).toString(), checkRoutes(type));
+        }
+        return false;
+    }
+
+    // Lignes d'index des méthodes @Url de la classe
+    private List<String> checkRoutes(TypeElement type) {
+        String prefix = stringValue(findAnnotation(type, CONTROLLER), "prefix");
+        List<String> lines = new ArrayList<>();
+
+        for (Element member : type.getEnclosedElements()) {
+            if (member.getKind() != ElementKind.METHOD) continue;
+            AnnotationMirror url = findAnnotation(member, URL);
+            if (url == null) continue;
+
+            String verb = findAnnotation(member, POST) != null ? "POST" : "GET";
+            String path = joinPrefix(prefix, stringValue(url, "value"));
+            String key = verb + " " + path;
+            ExecutableElement executable = (ExecutableElement) member;
+            String method = type.getQualifiedName() + "." + executable.getSimpleName();
+
+            String existing = routes.putIfAbsent(key, method);
+            if (existing != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Duplicate mapping value '" + key + "' declared by " + existing + " and " + method, member);
+            }
+
+            StringBuilder parameters = new StringBuilder();
+            for (VariableElement parameter : executable.getParameters()) {
+                if (parameters.length() > 0) parameters.append(',');
+                parameters.append(typeName(parameter.asType()));
+            }
+            lines.add("\t" + verb + "\t" + path + "\t" + executable.getSimpleName() + "\t" + parameters);
+        }
+        return lines;
+    }
+
+    // Nom chargeable par Class.forName après effacement des génériques (a.B$C, int, java.lang.String[])
+    private String typeName(TypeMirror type) {
+        TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) return typeName(((ArrayType) erased).getComponentType()) + "[]";
+        if (erased.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return erased.toString();
+    }
+
+    // Entrées de l'index déjà présent dans le répertoire de sortie, si leur classe existe toujours et n'a pas été
+    // recompilée (ses routes viennent alors de ce passage)
+    private void mergeExistingIndex() {
+        try {
+            FileObject existing = processingEnv.getFiler()
+                    .getResource(StandardLocation.CLASS_OUTPUT, "", ControllerScanner.INDEX_RESOURCE);
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                String line = reader.readLine();
+                if (line == null) return;
+                if (!line.equals(ControllerScanner.INDEX_HEADER)) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                            "Previous controller index has no routes and is ignored; rebuild all controllers");
+                    return;
+                }
+                Map<String, List<String>> kept = new HashMap<>();
+                List<String> current = null;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("\t")) {
+                        if (current != null) current.add(line);
+                        continue;
+                    }
+                    String className = line.trim();
+                    current = null;
+                    if (className.isEmpty() || className.startsWith("#") || controllers.containsKey(className)) continue;
+                    if (processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null) {
+                        current = new ArrayList<>();
+                        kept.put(className, current);
+                    }
+                }
+                controllers.putAll(kept);
+            }
+        } catch (IOException e) {
+            // Pas d'index précédent : compilation complète
+        }
+    }
+
+    private void writeIndex() {
+        mergeExistingIndex();
+        try {
+            FileObject index = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ControllerScanner.INDEX_RESOURCE);
+            try (Writer writer = index.openWriter()) {
+                writer.write(ControllerScanner.INDEX_HEADER);
+                writer.write('\n');
+                for (Map.Entry<String, List<String>> controller : controllers.entrySet()) {
+                    writer.write(controller.getKey());
+                    writer.write('\n');
+                    for (String route : controller.getValue()) {
+                        writer.write(route);
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Unable to write controller index: " + e.getMessage());
+        }
+    }
+
+    // Même règle que Utils.resolveUrl
+    private static String joinPrefix(String prefix, String url) {
+        if (prefix.isEmpty()) return url;
+        if (prefix.endsWith("/")) prefix = prefix.substring(0, prefix.length() - 1);
+        if (!prefix.startsWith("/")) prefix = "/" + prefix;
+        if (url.isEmpty()) return prefix;
+        return url.startsWith("/") ? prefix + url : prefix + "/" + url;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(annotationName)) return mirror;
+        }
+        return null;
+    }
+
+    private static String stringValue(AnnotationMirror mirror, String name) {
+        if (mirror == null) return "";
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) return String.valueOf(entry.getValue().getValue());
+        }
+        return "";
+    }
+}
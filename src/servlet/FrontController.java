@@ -1,11 +1,19 @@
 package servlet;
 
 import java.io.*;
-import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,19 +27,30 @@ import exception.ValidationException;
 import annotation.ValidateForm;
 import auth.*;
 
-@MultipartConfig
+// Fichiers de plus de 64 Ko écrits sur disque par le conteneur : jamais de fichier entier sur le tas
+@MultipartConfig(fileSizeThreshold = 64 * 1024)
 public class FrontController extends HttpServlet {
 
     private String controllerPackage;
     private ControllerScanner scanner;
     private List<Class<?>> controllers;
-    private HashMap<String, Mapping> methodList;
+    // Table des routes immuable, construite une seule fois dans init()
+    private Map<String, Mapping> methodList;
+    // Routeur radix : routes statiques, variables de chemin et jokers
+    private Router router;
+    // init-param virtual_threads=true : contrôleurs exécutés sur threads virtuels (Java 21+), sinon null
+    private ExecutorService virtualExecutor;
 
     @Override
     public void init(ServletConfig config) throws ServletException {
         super.init(config);
         controllerPackage = Utils.initializeControllerPackage(config);
+        initUploadDirectory(config);
+        initStaticAssets(config);
         scanAndInitializeControllers();
+        initVirtualThreads(config);
+        // Compteurs des @Bulkhead (actives, en attente, refusées) lisibles par l'application
+        config.getServletContext().setAttribute(RouteBulkhead.ATTRIBUTE, RouteBulkhead.all());
     }
 
     @Override
@@ -44,6 +63,17 @@ public class FrontController extends HttpServlet {
         }
     }
 
+    // PUT : uniquement les blocs des envois reprenables (HttpVerb n'a pas de PUT, aucune route applicative ne répond)
+    @Override
+    protected void doPut(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        try {
+            processRequest(request, response);
+        } catch (NoSuchMethodException | ClassNotFoundException | IOException | ServletException e) {
+            e.printStackTrace();
+        }
+    }
+
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -57,60 +87,130 @@ public class FrontController extends HttpServlet {
     protected void processRequest(HttpServletRequest request, HttpServletResponse response)
     throws IOException, ServletException, NoSuchMethodException, ClassNotFoundException 
     {
-        PrintWriter out = response.getWriter();
+        String relativeURI = Utils.getRelativeURI(request);
 
-        try {
-            HashMap<String, String> formData = Utils.getFormParameters(request);
-            String relativeURI = Utils.getRelativeURI(request);
+        // Fichiers statiques : métadonnées précalculées, ni routage ni lecture du formulaire
+        StaticAssets staticAssets = Utils.getStaticAssets();
+        if (staticAssets != null && staticAssets.handles(relativeURI)) {
+            staticAssets.serve(request, response, relativeURI);
+            return;
+        }
+
+        // Protocole d'envoi reprenable : traité avant le routage, le corps des blocs n'est pas un formulaire
+        ResumableUploads resumableUploads = Utils.getResumableUploads();
+        if (resumableUploads != null && resumableUploads.handles(relativeURI)) {
+            resumableUploads.handle(request, response, relativeURI);
+            return;
+        }
+
+        HashMap<String, String> formData = Utils.getFormParameters(request);
+        
+        // Récupérer la méthode à exécuter (classe et méthode déjà résolues au démarrage)
+        Router.Match match = router.match(relativeURI);
+        if (match != null) {
+            Mapping mapping = match.getMapping();
+            request.setAttribute(Router.PATH_VARIABLES_ATTRIBUTE, match.getPathVariables());
+
+
+            // Un seul lookup dans l'index des verbes
+            VerbAction verbAction = mapping.getVerbAction(request.getMethod());
             
-            // Récupérer la méthode à exécuter
-            Mapping mapping = methodList.get(relativeURI);
-            if (mapping != null) {
-                Class<?> controllerClass = Class.forName(mapping.getClassName());
-                Method method = null;
+            if (verbAction != null) {
+                // Vérifier l'authentification avec la classe ET la méthode
+                try {
+                    AuthenticationInterceptor.validateAuthentication(verbAction.getMethod(), verbAction.getControllerClass(), request);
                 
-                // Trouver la méthode correspondant au verbe HTTP
-                String httpMethod = request.getMethod();
-                for (VerbAction verbAction : mapping.getVerbMethodes()) {
-                    if (verbAction.getVerbe().equalsIgnoreCase(httpMethod)) {
-                        method = Utils.findMethod(controllerClass, verbAction.getMethode());
-                        break;
-                    }
+                } catch (AuthenticationException e) {
+                    System.err.println("Message d'erreur dans l'authentification de la methode ou dela classe = " +e.getMessage());
+                    // Stocker l'URL demandée pour redirection après login
+                    request.getSession().setAttribute("requested_url", relativeURI);
+                    response.sendRedirect(request.getContextPath() + "/login-page");
+                    return;
                 }
-                
-                if (method != null) {
-                    // Vérifier l'authentification avec la classe ET la méthode
-                    try {
-                        AuthenticationInterceptor.validateAuthentication(method, controllerClass, request);
-                    
-                    } catch (AuthenticationException e) {
-                        System.err.println("Message d'erreur dans l'authentification de la methode ou dela classe = " +e.getMessage());
-                        // Stocker l'URL demandée pour redirection après login
-                        request.getSession().setAttribute("requested_url", relativeURI);
-                        response.sendRedirect(request.getContextPath() + "/login-page");
-                        return;
-                    }
-                    
-                    // Continuer avec l'exécution normale
-                    Utils.displayDebugInfo(out, relativeURI, methodList);
-                    Utils.displayFormData(out, formData); 
-                    Utils.executeMappingMethod(relativeURI, methodList, out, request, response, formData);
+
+                if (virtualExecutor != null) {
+                    executeOnVirtualThread(relativeURI, mapping, verbAction, request, response, formData);
                 } else {
-                    response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
-                    return;
+                    executeRoute(relativeURI, mapping, verbAction, request, response, formData);
                 }
             } else {
-                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            }
+        } else {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+
+    // Exécution d'une route, limitée par son @Bulkhead s'il existe
+    private void executeRoute(String relativeURI, Mapping mapping, VerbAction verbAction,
+                              HttpServletRequest request, HttpServletResponse response, HashMap<String, String> formData)
+    throws IOException, ServletException, NoSuchMethodException, ClassNotFoundException 
+    {
+        RouteBulkhead bulkhead = verbAction.getBulkhead();
+        if (bulkhead != null && !bulkhead.tryEnter()) {
+            Utils.rejectBusy(bulkhead, response);
+            return;
+        }
+
+        // Writer obtenu seulement pour les routes HTML : @RestApi, SSE et résultats asynchrones écrivent eux-mêmes la réponse
+        PrintWriter out = null;
+
+        try {
+            if (verbAction.writesRawResponse()) {
+                Utils.invokeMethod(verbAction, null, request, response, formData);
                 return;
             }
+
+            // Continuer avec l'exécution normale
+            out = response.getWriter();
+            Utils.displayDebugInfo(out, relativeURI, methodList);
+            Utils.displayFormData(out, formData); 
+            Utils.executeMappingMethod(relativeURI, mapping, verbAction, out, request, response, formData);
         } catch (ValidationException ve) {
-            ModelView errorView = ve.getModelView();
-            Utils.handleModelView(errorView, request, response);
+            Utils.handleValidationFailure(ve, request, response);
         } finally {
-            out.close();
+            if (out != null) out.close();
+            if (bulkhead != null) bulkhead.exit();
         }
     }
 
+    // Mode thread virtuel : le thread du conteneur est rendu tout de suite, l'appel (bloquant) du contrôleur
+    // tourne sur un thread virtuel ; l'attente d'une place de @Bulkhead ne bloque pas non plus le conteneur
+    private void executeOnVirtualThread(String relativeURI, Mapping mapping, VerbAction verbAction,
+                                        HttpServletRequest request, HttpServletResponse response, HashMap<String, String> formData)
+    {
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(verbAction.getAsyncTimeoutMillis());
+        // Fin de la requête et écritures dans la réponse arbitrées par un seul drapeau (voir GuardedExchange)
+        GuardedExchange exchange = new GuardedExchange(asyncContext, request, response);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                exchange.timeout();
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {}
+
+            @Override
+            public void onError(AsyncEvent event) {}
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {}
+        });
+
+        virtualExecutor.execute(() -> {
+            try {
+                executeRoute(relativeURI, mapping, verbAction, exchange.getRequest(), exchange.getResponse(), formData);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                // Sans effet si le délai a déjà terminé la requête ou si un SSE / CompletionStage l'a prise en charge
+                exchange.finish();
+            }
+        });
+    }
+
 
 
     // Section for "init()" Function 
@@ -119,8 +219,8 @@ public class FrontController extends HttpServlet {
 
             this.scanner = new ControllerScanner();
             this.controllers = scanner.findControllers(controllerPackage);
-            this.methodList = new HashMap<>();
-            Utils.validateUniqueMappingValues(controllers);
+            // Index avec routes : doublons déjà refusés à la compilation, aucune annotation de méthode relue
+            if (scanner.getIndexedRoutes() == null) Utils.validateUniqueMappingValues(controllers);
             initMethodList();
         
         } catch (Exception e) {
@@ -129,15 +229,107 @@ public class FrontController extends HttpServlet {
         }
     }
 
+    // init-param upload_directory, sinon le dossier temporaire de l'application ; content_store en option
+    private void initUploadDirectory(ServletConfig config) {
+        String directory = config.getInitParameter("upload_directory");
+        if (directory == null) {
+            Object tempDir = config.getServletContext().getAttribute(ServletContext.TEMPDIR);
+            if (tempDir instanceof File) directory = new File((File) tempDir, "uploads").getPath();
+        }
+        if (directory != null) Utils.setUploadDirectory(directory);
+        String contentStore = config.getInitParameter("content_store");
+        if (contentStore != null) Utils.setContentStoreDirectory(contentStore);
+
+        // init-param resumable_uploads : préfixe des URL du protocole (ex: /uploads) ; resumable_max_size en octets
+        // (512 Mo par défaut) ; resumable_role : rôle exigé, utilisateur connecté par défaut, "anonymous" pour tous
+        String resumablePrefix = config.getInitParameter("resumable_uploads");
+        if (resumablePrefix != null) {
+            String maxSize = config.getInitParameter("resumable_max_size");
+            ResumableUploads uploads = new ResumableUploads(resumablePrefix, Paths.get(Utils.getUploadDirectory(), "resumable"),
+                    maxSize == null ? ResumableUploads.DEFAULT_MAX_SIZE : Long.parseLong(maxSize),
+                    ResumableUploads.DEFAULT_TTL_MILLIS, config.getInitParameter("resumable_role"));
+            // Chargement de auth.properties dès maintenant : une configuration absente fait échouer le démarrage
+            if (!uploads.isAnonymous()) {
+                try {
+                    Class.forName(AuthenticationManager.class.getName(), true, AuthenticationManager.class.getClassLoader());
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            Utils.setResumableUploads(uploads);
+        }
+    }
+
+    // init-param static_assets : dossier (chemin de l'application web ou absolu) ; static_prefix : préfixe d'URL
+    private void initStaticAssets(ServletConfig config) throws ServletException {
+        String directory = config.getInitParameter("static_assets");
+        if (directory == null) return;
+        ServletContext context = config.getServletContext();
+        Path root = Paths.get(directory);
+        if (!root.isAbsolute() || !Files.isDirectory(root)) {
+            String realPath = context.getRealPath(directory);
+            if (realPath != null) root = Paths.get(realPath);
+        }
+        String prefix = config.getInitParameter("static_prefix");
+        // Les .gz sont produits dans le dossier temporaire de l'application, jamais dans le dossier servi
+        Object tempDir = context.getAttribute(ServletContext.TEMPDIR);
+        Path cacheDirectory = tempDir instanceof File ? ((File) tempDir).toPath().resolve("assets-gz") : null;
+        try {
+            StaticAssets assets = StaticAssets.scan(root, prefix == null ? "/assets" : prefix, context.getContextPath(),
+                    context::getMimeType, cacheDirectory);
+            Utils.setStaticAssets(assets);
+            // ${assets['css/app.css']} dans les JSP
+            context.setAttribute(StaticAssets.ATTRIBUTE, assets.getUrls());
+            System.out.println("Static assets registered: " + assets.size());
+        } catch (IOException e) {
+            throw new ServletException("Static asset scan failed for " + root, e);
+        }
+    }
+
+    private void initVirtualThreads(ServletConfig config) {
+        if (!Boolean.parseBoolean(config.getInitParameter("virtual_threads"))) return;
+        if (!VirtualThreads.isAvailable()) {
+            System.out.println("virtual_threads ignored: virtual threads require Java 21");
+            return;
+        }
+        this.virtualExecutor = VirtualThreads.newExecutor("controller");
+    }
+
+    @Override
+    public void destroy() {
+        if (virtualExecutor != null) virtualExecutor.shutdown();
+        super.destroy();
+    }
+
     private void initMethodList() {
-        if (this.controllers != null) {
+        HashMap<String, Mapping> routes = new HashMap<>();
+        List<ControllerScanner.Route> indexedRoutes = scanner.getIndexedRoutes();
+        if (indexedRoutes != null) {
+            // Un ControllerProvider par classe, partagé par ses routes
+            Map<Class<?>, ControllerProvider> providers = new HashMap<>();
+            for (ControllerScanner.Route route : indexedRoutes) {
+                ControllerProvider provider = providers.computeIfAbsent(route.getControllerClass(), ControllerProvider::forClass);
+                if (!Utils.addRoute(route.getControllerClass(), route.getMethod(), route.getUrl(), route.getVerb().toLowerCase(), provider, routes)) {
+                    throw new IllegalStateException("Duplicate mapping value '" + route.getVerb() + " " + route.getUrl()
+                            + "' in controller index (" + route.getControllerClass().getName() + "." + route.getMethod().getName() + ")");
+                }
+            }
+        }
+        else if (this.controllers != null) {
             for (Class<?> controller : this.controllers) {
                 System.out.println("Scanning controller: " + controller.getName());
-                Utils.findMethodsAnnotated(controller, methodList);
+                Utils.findMethodsAnnotated(controller, routes);
             }
         } 
         else 
         {    System.out.println("No controllers found");    }
+
+        // Figer la table : aucune modification possible après init()
+        this.methodList = Map.copyOf(routes);
+
+        this.router = new Router();
+        routes.forEach(router::add);
+        System.out.println("Routes registered: " + router.size());
     }
     // End of Section 
 }